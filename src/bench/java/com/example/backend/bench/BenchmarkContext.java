@@ -0,0 +1,66 @@
+package com.example.backend.bench;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the application with the bench profile and seeds the given number of reservations, spread
+ * evenly over {@link #ROOMS} rooms in back-to-back one hour slots every two hours. Runs against an
+ * embedded H2 database unless a PostgreSQL scratch database is passed to the forked JVMs, e.g.
+ * {@code -jvmArgsAppend "-Dspring.datasource.url=jdbc:postgresql://localhost:5432/bench
+ * -Dspring.datasource.username=postgres -Dspring.datasource.password=postgres
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect -Xmx8g"}.
+ * The 10M dataset needs PostgreSQL and a large heap for the interval index.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    static final long ORGANIZATION_ID = 1;
+    static final int ROOMS = 100;
+    static final LocalDateTime FIRST_START = LocalDateTime.of(2050, 1, 1, 8, 0);
+
+    @Param({"1000", "100000", "10000000"})
+    public int reservations;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BackendApplication.class).profiles("bench").run();
+        DatasetSeeder.seed(bean(JdbcTemplate.class), ROOMS, reservations, FIRST_START);
+        bean(ReservationIntervalIndex.class).load(bean(ReservationRepository.class).findAllIntervals());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    long randomRoom() {
+        return ThreadLocalRandom.current().nextLong(ROOMS) + 1;
+    }
+
+    /**
+     * The start of a random slot that holds a reservation in every room.
+     */
+    LocalDateTime randomSeededSlot() {
+        long slots = Math.max(reservations / ROOMS, 1);
+        return FIRST_START.plusHours(2 * ThreadLocalRandom.current().nextLong(slots));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.backend.bench;
+
+import com.example.backend.model.Room;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Inserts the benchmark rooms and reservations with set-based SQL, so even the 10M dataset is seeded
+ * without round trips per row. Sequences are moved past the seeded ids, leaving room for the pool
+ * Hibernate allocates below the sequence value.
+ */
+final class DatasetSeeder {
+
+    private static final int SEQUENCE_GAP = 100;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DatasetSeeder() {
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int rooms, int reservations, LocalDateTime firstStart) {
+        boolean postgres = "PostgreSQL".equalsIgnoreCase(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+        String numbers = postgres ? "generate_series(1, ?) AS s(x)" : "SYSTEM_RANGE(1, ?) AS s(x)";
+        String first = "TIMESTAMP '" + firstStart.format(TIMESTAMP) + "'";
+        String slotHours = "((x - 1) / " + rooms + ") * 2";
+
+        jdbcTemplate.update("INSERT INTO organizations (id, name) VALUES (?, 'Bench')", BenchmarkContext.ORGANIZATION_ID);
+        jdbcTemplate.update("INSERT INTO rooms (id, name, identifier, level, availability, organization_id) " +
+                "SELECT x, 'Bench room ' || x, 'BR' || x, MOD(x, 10), TRUE, ? FROM " + numbers,
+                BenchmarkContext.ORGANIZATION_ID, rooms);
+        jdbcTemplate.update("INSERT INTO room_places_mapping (room_id, place_type, number_of_places) " +
+                "SELECT x, " + Room.PlaceType.SITTING.ordinal() + ", 4 + MOD(x, 10) FROM " + numbers, rooms);
+        jdbcTemplate.update("INSERT INTO room_places_mapping (room_id, place_type, number_of_places) " +
+                "SELECT x, " + Room.PlaceType.STANDING.ordinal() + ", 2 FROM " + numbers, rooms);
+        jdbcTemplate.update("INSERT INTO reservations " +
+                "(id, identifier, room_id, start_reservation_date_time, end_reservation_date_time) " +
+                "SELECT x, 'S' || x, MOD(x - 1, " + rooms + ") + 1, " +
+                plusHours(postgres, first, slotHours) + ", " +
+                plusHours(postgres, first, slotHours + " + 1") + " FROM " + numbers, reservations);
+
+        restartSequence(jdbcTemplate, postgres, "rooms_id_seq", rooms + SEQUENCE_GAP);
+        restartSequence(jdbcTemplate, postgres, "reservations_id_seq", reservations + SEQUENCE_GAP);
+        if (postgres) {
+            jdbcTemplate.execute("VACUUM ANALYZE reservations");
+        }
+    }
+
+    private static String plusHours(boolean postgres, String timestamp, String hours) {
+        return postgres
+                ? timestamp + " + (" + hours + ") * INTERVAL '1 hour'"
+                : "DATEADD(HOUR, " + hours + ", " + timestamp + ")";
+    }
+
+    private static void restartSequence(JdbcTemplate jdbcTemplate, boolean postgres, String sequence, long value) {
+        if (postgres) {
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?)", Long.class, value);
+        } else {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + value);
+        }
+    }
+}
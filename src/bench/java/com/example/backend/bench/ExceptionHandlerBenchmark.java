@@ -0,0 +1,55 @@
+package com.example.backend.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Requests rejected through CustomExceptionHandler, dispatched through the full MVC stack without
+ * the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private static final String RESERVATION_IN_THE_PAST = """
+            {"identifier": "PAST", "startReservationDateTime": "2000-01-01T10:00:00",
+             "endReservationDateTime": "2000-01-01T11:00:00", "roomId": 1}
+            """;
+
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context.context()).build();
+    }
+
+    @Benchmark
+    public MvcResult roomNotFound() throws Exception {
+        return mockMvc.perform(get("/rooms/0")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult invalidPageSize() throws Exception {
+        return mockMvc.perform(get("/reservations").param("size", "0")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult reservationInThePast() throws Exception {
+        return mockMvc.perform(post("/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(RESERVATION_IN_THE_PAST)).andReturn();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.bench;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * The logging done for one booking: the former ten INFO lines through a synchronous appender, the
+ * same lines through the async appender, and the single request summary through the async JSON
+ * appender used in production. Events are written to a discarding stream, so the numbers are the
+ * cost of formatting and handing over the events, not of the console itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private LoggerContext context;
+    private Logger synchronousText;
+    private Logger asynchronousText;
+    private Logger asynchronousJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new LoggerContext();
+        synchronousText = logger("synchronous-text", output(textEncoder()));
+        asynchronousText = logger("asynchronous-text", async(output(textEncoder())));
+        asynchronousJson = logger("asynchronous-json", async(output(jsonEncoder())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void perStepSynchronous() {
+        logSteps(synchronousText);
+    }
+
+    @Benchmark
+    public void perStepAsynchronous() {
+        logSteps(asynchronousText);
+    }
+
+    @Benchmark
+    public void requestSummaryAsynchronous() {
+        asynchronousJson.info("Request completed {} {} {} {}",
+                kv("method", "POST"), kv("route", "/reservations"), kv("status", 200), kv("duration_ms", 1.25));
+    }
+
+    private static void logSteps(Logger logger) {
+        logger.info("Reservation adding");
+        logger.info("Room availability checking");
+        logger.info("Room availability checking completed");
+        logger.info("Reservation date checking");
+        logger.info("Reservation date checking completed");
+        logger.info("The room with id {} was found", 42L);
+        logger.info("Setting updated fields");
+        logger.info("The reservation with id {} was found", 4242L);
+        logger.info("Saving reservation");
+        logger.info("The reservation was created");
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private Appender<ILoggingEvent> output(Encoder<ILoggingEvent> encoder) {
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private Appender<ILoggingEvent> async(Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+
+    private Encoder<ILoggingEvent> textEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.setIncludeCallerData(false);
+        encoder.start();
+        return encoder;
+    }
+}
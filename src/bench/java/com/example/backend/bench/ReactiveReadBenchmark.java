@@ -0,0 +1,65 @@
+package com.example.backend.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The blocking findAll() endpoints against the R2DBC endpoints streaming the same tables as NDJSON,
+ * through the full MVC stack without the network. The blocking endpoints load every entity into
+ * the persistence context before writing the first byte, so the 10M dataset is not meant for them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context.context()).build();
+    }
+
+    @Benchmark
+    public int blockingReservations() throws Exception {
+        return body(get("/reservations"));
+    }
+
+    @Benchmark
+    public int reactiveReservations() throws Exception {
+        return asyncBody(get("/reactive/reservations").accept(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Benchmark
+    public int blockingRooms() throws Exception {
+        return body(get("/rooms"));
+    }
+
+    @Benchmark
+    public int reactiveRooms() throws Exception {
+        return asyncBody(get("/reactive/rooms").accept(MediaType.APPLICATION_NDJSON));
+    }
+
+    private int body(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getContentLength();
+    }
+
+    private int asyncBody(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        result.getAsyncResult(TimeUnit.MINUTES.toMillis(5));
+        return mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.bench;
+
+import com.example.backend.dto.ReservationView;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.model.Reservation;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking and overlap lookups. New reservations are booked in room 1 after the seeded slots, so
+ * they never conflict and the dataset only grows by the measured bookings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBenchmark {
+
+    private static final LocalDateTime BOOKING_START = BenchmarkContext.FIRST_START.plusYears(2000);
+
+    private long bookings;
+
+    @Benchmark
+    public void addReservation(BenchmarkContext context) {
+        long booking = bookings++;
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier("A" + Thread.currentThread().getId() + "-" + booking);
+        reservation.setRoomId(1);
+        reservation.setStartReservationDateTime(BOOKING_START.plusHours(2 * booking));
+        reservation.setEndReservationDateTime(BOOKING_START.plusHours(2 * booking + 1));
+        context.bean(ReservationService.class).addReservation(reservation);
+    }
+
+    @Benchmark
+    public boolean overlapCheckFromIndex(BenchmarkContext context) {
+        LocalDateTime start = context.randomSeededSlot().plusMinutes(30);
+        return context.bean(ReservationIntervalIndex.class).hasOverlap(context.randomRoom(), start, start.plusHours(1));
+    }
+
+    @Benchmark
+    public List<Reservation> overlapQueryFromDatabase(BenchmarkContext context) {
+        LocalDateTime start = context.randomSeededSlot().plusMinutes(30);
+        return context.bean(ReservationRepository.class)
+                .findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
+                        context.randomRoom(), start.plusHours(1), start);
+    }
+
+    @Benchmark
+    public List<ReservationView> reservationsOfRoomInDay(BenchmarkContext context) {
+        LocalDateTime from = context.randomSeededSlot();
+        return context.bean(ReservationService.class).getReservationsInPeriod(context.randomRoom(), null, from, from.plusDays(1));
+    }
+}
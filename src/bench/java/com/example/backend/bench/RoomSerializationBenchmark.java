@@ -0,0 +1,34 @@
+package com.example.backend.bench;
+
+import com.example.backend.service.RoomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /rooms: loads all rooms with their places and reservations as DTO projections and serializes
+ * them, inside one transaction like a request with open-session-in-view. Every room carries its
+ * reservations, so the 10M dataset is not meant for this benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomSerializationBenchmark {
+
+    @Benchmark
+    public byte[] findAllRoomsAsJson(BenchmarkContext context) {
+        ObjectMapper objectMapper = context.bean(ObjectMapper.class);
+        RoomService roomService = context.bean(RoomService.class);
+        return context.bean(TransactionTemplate.class).execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(roomService.getRooms());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.bench;
+
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Which of the seeded rooms are free from 14:00 to 15:30 on each of 20 days, answered from the slot
+ * bitmaps of the interval index against one derived overlap query per room and day.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlotAvailabilityBenchmark {
+
+    private static final int DAYS = 20;
+    private static final LocalTime FROM = LocalTime.of(14, 0);
+    private static final LocalTime TO = LocalTime.of(15, 30);
+    private static final List<Long> ROOM_IDS = LongStream.rangeClosed(1, BenchmarkContext.ROOMS).boxed().toList();
+
+    @Benchmark
+    public List<Long> freeRoomsFromSlotBitmaps(BenchmarkContext context) {
+        return context.bean(ReservationIntervalIndex.class).freeRooms(ROOM_IDS, randomDays(context), FROM, TO);
+    }
+
+    @Benchmark
+    public List<Long> freeRoomsFromDerivedQueries(BenchmarkContext context) {
+        ReservationRepository reservationRepository = context.bean(ReservationRepository.class);
+        List<LocalDate> days = randomDays(context);
+        return ROOM_IDS.stream()
+                .filter(roomId -> days.stream().allMatch(day -> reservationRepository
+                        .findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
+                                roomId, day.atTime(TO), day.atTime(FROM))
+                        .isEmpty()))
+                .toList();
+    }
+
+    private static List<LocalDate> randomDays(BenchmarkContext context) {
+        LocalDate first = context.randomSeededSlot().toLocalDate();
+        return first.datesUntil(first.plusDays(DAYS)).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.backend.bench;
+
+import com.example.backend.dto.UtilizationReport;
+import com.example.backend.service.ReservationService;
+import com.example.backend.service.UtilizationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A month-long utilization report of the seeded organization, read from the hourly sums of the
+ * interval index, against summing up the reservations of the month loaded from the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilizationBenchmark {
+
+    @Benchmark
+    public UtilizationReport organizationMonthFromIndex(BenchmarkContext context) {
+        LocalDate from = context.randomSeededSlot().toLocalDate();
+        return context.bean(UtilizationService.class)
+                .getOrganizationUtilization(BenchmarkContext.ORGANIZATION_ID, from, from.plusMonths(1));
+    }
+
+    @Benchmark
+    public long organizationMonthFromReservations(BenchmarkContext context) {
+        LocalDateTime from = context.randomSeededSlot().toLocalDate().atStartOfDay();
+        return context.bean(ReservationService.class)
+                .getReservationsInPeriod(null, BenchmarkContext.ORGANIZATION_ID, from, from.plusMonths(1)).stream()
+                .mapToLong(reservation -> Duration.between(reservation.startReservationDateTime(),
+                        reservation.endReservationDateTime()).getSeconds())
+                .sum();
+    }
+}
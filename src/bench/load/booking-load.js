@@ -0,0 +1,67 @@
+// k6 load test comparing the platform and virtual thread modes under 2000 concurrent clients.
+//
+// Start the application against a seeded PostgreSQL database (e.g. the bench dataset), once with
+// app.virtual-threads.enabled=false and once with =true on a Java 21 runtime, then run:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e ROOMS=100 --summary-trend-stats "avg,p(95),p(99),max" \
+//       src/bench/load/booking-load.js
+//
+// Compare http_reqs (throughput), http_req_duration p(99) and the share of 503 responses turned
+// away by the admission limiter between the two runs.
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ROOMS = parseInt(__ENV.ROOMS || '100');
+
+export const options = {
+    scenarios: {
+        clients: {
+            executor: 'ramping-vus',
+            stages: [
+                { duration: '30s', target: 2000 },
+                { duration: '2m', target: 2000 },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        'http_req_duration{expected_response:true}': ['p(99)<2000'],
+    },
+};
+
+function randomRoom() {
+    return Math.floor(Math.random() * ROOMS) + 1;
+}
+
+function isoDate(date) {
+    return date.toISOString().substring(0, 19);
+}
+
+export default function () {
+    const from = new Date(Date.UTC(2050, 0, 1 + Math.floor(Math.random() * 30), 8));
+    const to = new Date(from.getTime() + 24 * 3600 * 1000);
+    const roll = Math.random();
+    let response;
+    if (roll < 0.5) {
+        response = http.get(`${BASE_URL}/reservations/search?roomId=${randomRoom()}&from=${isoDate(from)}&to=${isoDate(to)}`,
+            { tags: { name: 'search' } });
+    } else if (roll < 0.8) {
+        response = http.get(`${BASE_URL}/rooms/${randomRoom()}`, { tags: { name: 'room' } });
+    } else {
+        // Unique far-future slots, so bookings only conflict on the room lock, not on the dates.
+        const slot = exec.scenario.iterationInTest;
+        const start = new Date(Date.UTC(2100, 0, 1) + slot * 2 * 3600 * 1000);
+        const end = new Date(start.getTime() + 3600 * 1000);
+        response = http.post(`${BASE_URL}/reservations`, JSON.stringify({
+            identifier: `L${slot}`,
+            roomId: randomRoom(),
+            startReservationDateTime: isoDate(start),
+            endReservationDateTime: isoDate(end),
+        }), { headers: { 'Content-Type': 'application/json' }, tags: { name: 'book' } });
+    }
+    check(response, {
+        'served or shed': r => r.status < 500 || r.status === 503,
+    });
+}
@@ -0,0 +1,26 @@
+package com.example.backend.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class AdmissionConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionLimiter> admissionLimiter(
+            @Value("${app.admission.max-concurrent-requests:40}") int maxConcurrentRequests,
+            @Value("${app.admission.queue-timeout:1s}") Duration queueTimeout,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionLimiter> registration =
+                new FilterRegistrationBean<>(new AdmissionLimiter(maxConcurrentRequests, queueTimeout, meterRegistry));
+        registration.addUrlPatterns("/organizations/*", "/rooms/*", "/reservations/*", "/reservation-series/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
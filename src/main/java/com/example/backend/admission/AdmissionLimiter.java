@@ -0,0 +1,121 @@
+package com.example.backend.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the number of organization, room and reservation requests in progress. A request waits
+ * for a permit at most the queue timeout and is then rejected with 503, so an overload is turned
+ * away before it queues up for database connections. Streamed responses keep their permit until
+ * the async request completes.
+ */
+public class AdmissionLimiter extends OncePerRequestFilter {
+
+    static final String REJECTED_MESSAGE = "The server is busy, please retry later";
+
+    Logger LOGGER = LoggerFactory.getLogger(AdmissionLimiter.class);
+
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final long queueTimeoutNanos;
+    private final Counter rejected;
+
+    public AdmissionLimiter(int maxConcurrentRequests, Duration queueTimeout, MeterRegistry meterRegistry) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("The number of concurrent requests must be positive");
+        }
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        Gauge.builder("backend.admission.active", this, AdmissionLimiter::getActiveRequests)
+                .description("Requests holding an admission permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("backend.admission.rejected")
+                .description("Requests rejected because no admission permit was free in time")
+                .register(meterRegistry);
+    }
+
+    public int getActiveRequests() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            LOGGER.debug("No admission permit for {} {}", request.getMethod(), request.getRequestURI());
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(REJECTED_MESSAGE);
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.cache;
+
+import com.example.backend.dto.CacheStatistics;
+import com.example.backend.dto.RegionStatistics;
+import com.example.backend.model.Organization;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Access to the Hibernate second-level cache of rooms and organizations. Hibernate keeps the entity
+ * and places regions up to date on its own, but {@code Organization.rooms} is the inverse side of
+ * {@code Room.organization}, so it has to be evicted here whenever a room joins, leaves or changes
+ * its organization. Evictions are repeated after commit, so a reader cannot cache the collection as
+ * it was before the change in the meantime.
+ */
+@Component
+public class SecondLevelCache {
+
+    static final String ORGANIZATION_ROOMS = Organization.class.getName() + ".rooms";
+
+    Logger LOGGER = LoggerFactory.getLogger(SecondLevelCache.class);
+
+    @PersistenceUnit
+    EntityManagerFactory entityManagerFactory;
+
+    public void evictOrganizationRooms(Long... organizationIds) {
+        List<Long> ids = Arrays.stream(organizationIds).filter(Objects::nonNull).distinct().toList();
+        runNowAndAfterCommit(() -> ids.forEach(id -> cache().evictCollectionData(ORGANIZATION_ROOMS, id)));
+    }
+
+    public void evictAllOrganizationRooms() {
+        runNowAndAfterCommit(() -> cache().evictCollectionData(ORGANIZATION_ROOMS));
+    }
+
+    public CacheStatistics getStatistics() {
+        SessionFactory sessionFactory = sessionFactory();
+        Statistics statistics = sessionFactory.getStatistics();
+        List<RegionStatistics> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+                    return new RegionStatistics(
+                            region,
+                            regionStatistics.getHitCount(),
+                            regionStatistics.getMissCount(),
+                            regionStatistics.getPutCount(),
+                            regionStatistics.getElementCountInMemory());
+                })
+                .toList();
+        return new CacheStatistics(
+                sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled(),
+                statistics.isStatisticsEnabled(),
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getCollectionLoadCount(),
+                regions);
+    }
+
+    private void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+        LOGGER.debug("Evicted cached rooms of organizations");
+    }
+
+    private org.hibernate.Cache cache() {
+        return sessionFactory().getCache();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
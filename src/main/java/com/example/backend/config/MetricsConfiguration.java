@@ -0,0 +1,23 @@
+package com.example.backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Service methods are timed through {@code @Timed} on the service classes, tagged with the class
+ * and method name. Repository methods are timed by Spring Data as
+ * {@code spring.data.repository.invocations}, tagged with the repository and method name.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String SERVICE_TIMER = "backend.service";
+    public static final String EXCEPTION_COUNTER = "backend.exceptions";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
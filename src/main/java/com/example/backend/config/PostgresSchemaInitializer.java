@@ -0,0 +1,148 @@
+package com.example.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Applies the constraints JPA cannot express, and the tables, columns and indexes added to the
+ * entities since, to an existing PostgreSQL schema. Every statement is idempotent, so it is safe to
+ * run on each startup. Production doesn't let Hibernate generate the schema, so the @Version
+ * columns, whose @ColumnDefault only affects generated schemas, are added here too. A statement
+ * that fails stops the startup: without the exclusion constraint, the extension it needs or the
+ * version columns the application would run without the guarantees it relies on, for example
+ * when the role can't create the extension or the reservations already overlap. The reservation
+ * archive is partitioned by month, with the monthly partitions added by the archive job as it
+ * needs them.
+ */
+@Component
+public class PostgresSchemaInitializer {
+
+    static final List<String> STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS btree_gist",
+            """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservations_room_period_excl') THEN
+                    ALTER TABLE reservations ADD CONSTRAINT reservations_room_period_excl
+                        EXCLUDE USING gist (
+                            room_id WITH =,
+                            tsrange(start_reservation_date_time, end_reservation_date_time, '[]') WITH &&)
+                        WHERE (room_id IS NOT NULL
+                            AND start_reservation_date_time IS NOT NULL
+                            AND end_reservation_date_time IS NOT NULL);
+                END IF;
+            END
+            $$
+            """,
+            "CREATE INDEX IF NOT EXISTS reservations_room_period_idx " +
+                    "ON reservations (room_id, start_reservation_date_time, end_reservation_date_time)",
+            "CREATE INDEX IF NOT EXISTS rooms_organization_idx ON rooms (organization_id)",
+            "ALTER TABLE rooms ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0",
+            "ALTER TABLE reservations ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0",
+            "ALTER TABLE organizations ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0",
+            """
+            CREATE TABLE IF NOT EXISTS reservation_series (
+                id integer PRIMARY KEY,
+                identifier varchar(255) UNIQUE,
+                start_reservation_date_time timestamp(6),
+                end_reservation_date_time timestamp(6),
+                frequency varchar(255),
+                repeat_interval integer NOT NULL,
+                occurrences integer,
+                until_date_time timestamp(6),
+                room_id integer REFERENCES rooms (id))
+            """,
+            "CREATE INDEX IF NOT EXISTS reservation_series_room_idx ON reservation_series (room_id)",
+            """
+            CREATE TABLE IF NOT EXISTS daily_occupancy (
+                room_id integer NOT NULL REFERENCES rooms (id) ON DELETE CASCADE,
+                occupancy_day date NOT NULL,
+                booked_minutes integer NOT NULL,
+                reservation_count integer NOT NULL,
+                PRIMARY KEY (room_id, occupancy_day))
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS reservations_archive (
+                id integer NOT NULL,
+                identifier varchar(255),
+                room_id integer,
+                start_reservation_date_time timestamp(6),
+                end_reservation_date_time timestamp(6) NOT NULL,
+                archived_at timestamp(6),
+                PRIMARY KEY (id, end_reservation_date_time))
+            PARTITION BY RANGE (end_reservation_date_time)
+            """,
+            "CREATE TABLE IF NOT EXISTS reservations_archive_default PARTITION OF reservations_archive DEFAULT",
+            "CREATE INDEX IF NOT EXISTS reservations_archive_room_period_idx " +
+                    "ON reservations_archive (room_id, start_reservation_date_time)",
+            """
+            CREATE TABLE IF NOT EXISTS idempotency_keys (
+                idempotency_key varchar(255) PRIMARY KEY,
+                request_hash varchar(255) NOT NULL,
+                reservation_id integer NOT NULL,
+                expires_at timestamp(6) NOT NULL)
+            """,
+            "CREATE INDEX IF NOT EXISTS idempotency_keys_expires_at_idx ON idempotency_keys (expires_at)");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    Logger LOGGER = LoggerFactory.getLogger(PostgresSchemaInitializer.class);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void initialize() {
+        postgres = isPostgres();
+        if (!postgres) {
+            LOGGER.info("Skipping PostgreSQL schema initialization");
+            return;
+        }
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                LOGGER.error("Could not apply schema statement: {}", statement, e);
+                throw new IllegalStateException("The PostgreSQL schema could not be initialized", e);
+            }
+        }
+        LOGGER.info("PostgreSQL schema initialization completed");
+    }
+
+    /**
+     * Creates the archive partition of the month before reservations ending in it are archived.
+     * Fails if the partition can't be created, so the reservations are not archived: rows in the
+     * default partition would keep the partition of their month from ever being added.
+     */
+    public void ensureArchivePartition(YearMonth month) {
+        if (!postgres) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservations_archive_" + month.format(PARTITION_SUFFIX) +
+                    " PARTITION OF reservations_archive FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" +
+                    month.plusMonths(1).atDay(1) + "')");
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not create the archive partition of {}", month, e);
+            throw new IllegalStateException("The archive partition of " + month + " could not be created", e);
+        }
+    }
+
+    private boolean isPostgres() {
+        String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(productName);
+    }
+}
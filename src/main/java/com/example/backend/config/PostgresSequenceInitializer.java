@@ -0,0 +1,61 @@
+package com.example.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Raises the increment of the id sequences created for the former serial columns to the allocation
+ * size of the entities, so Hibernate can hand out ids from a pool of 50 per sequence call and batch
+ * the inserts. Hibernate checks the increment when it starts, so this has to run before the entity
+ * manager factory is created. Ids already taken stay below the next pool. A statement that fails
+ * stops the startup, since ids handed out from pools of 50 by a sequence still incrementing by one
+ * would collide.
+ */
+@Component
+public class PostgresSequenceInitializer {
+
+    static final List<String> STATEMENTS = List.of(
+            "ALTER SEQUENCE IF EXISTS reservations_id_seq INCREMENT BY 50",
+            "ALTER SEQUENCE IF EXISTS rooms_id_seq INCREMENT BY 50",
+            "CREATE SEQUENCE IF NOT EXISTS reservation_series_id_seq INCREMENT BY 50");
+
+    Logger LOGGER = LoggerFactory.getLogger(PostgresSequenceInitializer.class);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void initialize() {
+        String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(productName)) {
+            LOGGER.info("Skipping PostgreSQL sequence initialization");
+            return;
+        }
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                LOGGER.error("Could not apply sequence statement: {}", statement, e);
+                throw new IllegalStateException("The PostgreSQL sequences could not be initialized", e);
+            }
+        }
+        LOGGER.info("PostgreSQL sequence initialization completed");
+    }
+
+    @Component
+    static class EntityManagerFactoryDependsOnSequences extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnSequences() {
+            super(PostgresSequenceInitializer.class);
+        }
+    }
+}
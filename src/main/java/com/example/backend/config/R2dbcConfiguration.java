@@ -0,0 +1,45 @@
+package com.example.backend.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * The pool for the reactive read path, built from the spring.r2dbc properties. It is not exposed as
+ * a ConnectionFactory bean, because Spring Boot skips the JDBC DataSource, and with it JPA, as soon
+ * as one exists. R2dbcAutoConfiguration is excluded for the same reason.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class R2dbcConfiguration {
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfiguration(R2dbcProperties properties) {
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                                .username(properties.getUsername())
+                                .password(properties.getPassword())
+                                .build())
+                .initialSize(properties.getPool().getInitialSize())
+                .maxSize(properties.getPool().getMaxSize())
+                .maxIdleTime(properties.getPool().getMaxIdleTime())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.controller;
+
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.dto.CacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:4200")
+@RequestMapping("/cache")
+public class CacheController {
+    @Autowired
+    SecondLevelCache secondLevelCache;
+
+    @GetMapping("/statistics")
+    public CacheStatistics getCacheStatistics() {
+        return secondLevelCache.getStatistics();
+    }
+}
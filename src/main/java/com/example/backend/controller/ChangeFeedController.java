@@ -0,0 +1,33 @@
+package com.example.backend.controller;
+
+import com.example.backend.feed.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Server-sent change feed. It is mapped outside the admission limited paths, since a subscriber
+ * keeps its request open for as long as it listens.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:4200")
+@RequestMapping("/changes")
+public class ChangeFeedController {
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Value("${app.change-feed.timeout:30m}")
+    Duration timeout;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) Long roomId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        changeFeed.subscribe(emitter, roomId, lastEventId);
+        return emitter;
+    }
+}
@@ -1,29 +1,84 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.OrganizationDetails;
+import com.example.backend.dto.UtilizationReport;
 import com.example.backend.model.Organization;
+import com.example.backend.service.DailyOccupancyService;
 import com.example.backend.service.OrganizationService;
+import com.example.backend.service.UtilizationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = HttpHeaders.ETAG)
 @RequestMapping("/organizations")
 public class OrganizationController {
     @Autowired
     OrganizationService organizationService;
 
+    @Autowired
+    UtilizationService utilizationService;
+
+    @Autowired
+    DailyOccupancyService dailyOccupancyService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @GetMapping()
-    public List<Organization> getAllOrganizations() {
+    public List<OrganizationDetails> getAllOrganizations(WebRequest request) {
+        if (request.checkNotModified(organizationService.getOrganizationsETag())) {
+            return null;
+        }
         return organizationService.getOrganizations();
     }
 
+    @GetMapping(params = "size")
+    public KeysetPage<OrganizationDetails> getOrganizationsPage(@RequestParam(required = false) String after,
+                                                         @RequestParam int size) {
+        return organizationService.getOrganizationsPage(after, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrganizations() {
+        return NdjsonResponses.stream(objectMapper, organizationService::streamOrganizations);
+    }
+
     @GetMapping("/{id}")
-    public Organization getOrganizationById(@PathVariable long id) {
+    public OrganizationDetails getOrganizationById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(organizationService.getOrganizationETag(id))) {
+            return null;
+        }
         return organizationService.getOrganizationById(id);
     }
 
+    @GetMapping("/{id}/occupancy")
+    public List<DailyOccupancyView> getOrganizationOccupancy(@PathVariable long id,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyOccupancyService.getOrganizationOccupancy(id, from, to);
+    }
+
+    @GetMapping("/{id}/utilization")
+    public UtilizationReport getOrganizationUtilization(@PathVariable long id,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return utilizationService.getOrganizationUtilization(id, from, to);
+    }
+
     @PostMapping()
     public void addOneOrganization(@RequestBody Organization organization) {
         organizationService.addOrganization(organization);
@@ -35,8 +90,9 @@ public class OrganizationController {
     }
 
     @PutMapping("/{id}")
-    public void updateOneOrganization(@PathVariable Long id, @RequestBody Organization organization) {
-        organizationService.updateOrganizationNameById(id, organization);
+    public void updateOneOrganization(@PathVariable Long id, @RequestBody Organization organization,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        organizationService.updateOrganizationNameById(id, organization, Fingerprint.versionOf(ifMatch));
     }
 
     @PatchMapping("/{organizationId}/rooms/{roomId}")
@@ -0,0 +1,40 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.OrganizationView;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomView;
+import com.example.backend.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Read-only endpoints served from R2DBC. Streamed as NDJSON, Spring MVC writes every element as it
+ * arrives and requests the next one only after the previous one was written.
+ */
+@RestController
+@RequestMapping(value = "/reactive", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+public class ReactiveReadController {
+
+    @Autowired
+    ReactiveReadService reactiveReadService;
+
+    @GetMapping("/organizations")
+    public Flux<OrganizationView> getOrganizations() {
+        return reactiveReadService.getOrganizations();
+    }
+
+    @GetMapping("/rooms")
+    public Flux<RoomView> getRooms() {
+        return reactiveReadService.getRooms();
+    }
+
+    @GetMapping("/reservations")
+    public Flux<ReservationView> getReservations(@RequestParam(required = false) Long roomId) {
+        return reactiveReadService.getReservations(roomId);
+    }
+}
@@ -1,32 +1,95 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CreatedReservation;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.ReservationImportResult;
+import com.example.backend.idempotency.IdempotencyKeyStore;
 import com.example.backend.model.Reservation;
+import com.example.backend.service.ReservationArchiveService;
 import com.example.backend.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = {HttpHeaders.ETAG, HttpHeaders.LOCATION, IdempotencyKeyStore.REPLAYED_HEADER})
 @RequestMapping("/reservations")
 public class ReservationController {
     @Autowired
     ReservationService reservationService;
 
+    @Autowired
+    ReservationArchiveService reservationArchiveService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @GetMapping()
-    public List<Reservation> getAllReservations() {
+    public List<ReservationView> getAllReservations() {
         return reservationService.getReservations();
     }
 
+    @GetMapping(params = "size")
+    public KeysetPage<ReservationView> getReservationsPage(@RequestParam(required = false) String after,
+                                                       @RequestParam int size,
+                                                       @RequestParam(defaultValue = "id") String order) {
+        return reservationService.getReservationsPage(after, size, order);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamReservations() {
+        return NdjsonResponses.stream(objectMapper, reservationService::streamReservations);
+    }
+
+    @GetMapping("/search")
+    public List<ReservationView> searchReservations(@RequestParam(required = false) Long roomId,
+                                                    @RequestParam(required = false) Long organizationId,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reservationService.getReservationsInPeriod(roomId, organizationId, from, to);
+    }
+
+    @GetMapping("/archive")
+    public List<ReservationView> searchArchivedReservations(@RequestParam long roomId,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reservationArchiveService.getArchivedReservationsInPeriod(roomId, from, to);
+    }
+
     @GetMapping("/{id}")
-    public Reservation getReservationById(@PathVariable long id) {
+    public ReservationView getReservationById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(reservationService.getReservationETag(id))) {
+            return null;
+        }
         return reservationService.getReservationById(id);
     }
 
     @PostMapping()
-    public void addOneReservation(@RequestBody Reservation reservation) {
-        reservationService.addReservation(reservation);
+    public ResponseEntity<Void> addOneReservation(@RequestBody Reservation reservation,
+                                                  @RequestHeader(value = IdempotencyKeyStore.HEADER, required = false) String idempotencyKey) {
+        CreatedReservation created = reservationService.addReservation(reservation, idempotencyKey);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().location(URI.create("/reservations/" + created.id()));
+        if (idempotencyKey != null) {
+            response.header(IdempotencyKeyStore.REPLAYED_HEADER, String.valueOf(created.replayed()));
+        }
+        return response.build();
+    }
+
+    @PostMapping("/import")
+    public List<ReservationImportResult> importReservations(@RequestBody List<Reservation> reservations) {
+        return reservationService.importReservations(reservations);
     }
 
     @DeleteMapping("/{id}")
@@ -35,7 +98,8 @@ public class ReservationController {
     }
 
     @PutMapping("/{id}")
-    public void updateOneReservation(@PathVariable Long id, @RequestBody Reservation reservation) {
-        reservationService.updateReservationById(id, reservation);
+    public void updateOneReservation(@PathVariable Long id, @RequestBody Reservation reservation,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        reservationService.updateReservationById(id, reservation, Fingerprint.versionOf(ifMatch));
     }
 }
@@ -0,0 +1,53 @@
+package com.example.backend.controller;
+
+import com.example.backend.index.Occurrence;
+import com.example.backend.model.ReservationSeries;
+import com.example.backend.service.ReservationSeriesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:4200")
+@RequestMapping("/reservation-series")
+public class ReservationSeriesController {
+    @Autowired
+    ReservationSeriesService reservationSeriesService;
+
+    @GetMapping()
+    public List<ReservationSeries> getAllReservationSeries() {
+        return reservationSeriesService.getReservationSeries();
+    }
+
+    @GetMapping("/occurrences")
+    public List<Occurrence> getOccurrencesOfRoom(@RequestParam long roomId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reservationSeriesService.getOccurrencesOfRoom(roomId, from, to);
+    }
+
+    @GetMapping("/{id}")
+    public ReservationSeries getReservationSeriesById(@PathVariable long id) {
+        return reservationSeriesService.getReservationSeriesById(id);
+    }
+
+    @GetMapping("/{id}/occurrences")
+    public List<Occurrence> getOccurrences(@PathVariable long id,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reservationSeriesService.getOccurrences(id, from, to);
+    }
+
+    @PostMapping()
+    public void addOneReservationSeries(@RequestBody ReservationSeries series) {
+        reservationSeriesService.addReservationSeries(series);
+    }
+
+    @DeleteMapping("/{id}")
+    public void removeOneReservationSeries(@PathVariable long id) {
+        reservationSeriesService.removeReservationSeriesById(id);
+    }
+}
@@ -1,29 +1,108 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.AvailableRoom;
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.RoomCandidate;
+import com.example.backend.dto.RoomDetails;
+import com.example.backend.dto.UtilizationReport;
 import com.example.backend.model.Room;
+import com.example.backend.service.DailyOccupancyService;
 import com.example.backend.service.RoomService;
+import com.example.backend.service.UtilizationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = HttpHeaders.ETAG)
 @RequestMapping("/rooms")
 public class RoomController {
     @Autowired
     RoomService roomService;
 
+    @Autowired
+    UtilizationService utilizationService;
+
+    @Autowired
+    DailyOccupancyService dailyOccupancyService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @GetMapping()
-    public List<Room> getAllRooms() {
+    public List<RoomDetails> getAllRooms(WebRequest request) {
+        if (request.checkNotModified(roomService.getRoomsETag())) {
+            return null;
+        }
         return roomService.getRooms();
     }
 
+    @GetMapping(params = "size")
+    public KeysetPage<RoomDetails> getRoomsPage(@RequestParam(required = false) String after,
+                                         @RequestParam int size) {
+        return roomService.getRoomsPage(after, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRooms() {
+        return NdjsonResponses.stream(objectMapper, roomService::streamRooms);
+    }
+
+    @GetMapping("/available")
+    public List<AvailableRoom> getAvailableRooms(@RequestParam long organizationId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(defaultValue = "SITTING") Room.PlaceType placeType,
+                                                 @RequestParam(defaultValue = "0") int minPlaces,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        return roomService.findAvailableRooms(organizationId, from, to, placeType, minPlaces, limit);
+    }
+
+    @GetMapping("/available-on-days")
+    public List<RoomCandidate> getRoomsAvailableOnDays(@RequestParam long organizationId,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> days,
+                                                       @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime from,
+                                                       @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime to,
+                                                       @RequestParam(defaultValue = "SITTING") Room.PlaceType placeType,
+                                                       @RequestParam(defaultValue = "0") int minPlaces) {
+        return roomService.findRoomsFreeOnDays(organizationId, days, from, to, placeType, minPlaces);
+    }
+
     @GetMapping("/{id}")
-    public Room getRoomById(@PathVariable long id) {
+    public RoomDetails getRoomById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(roomService.getRoomETag(id))) {
+            return null;
+        }
         return roomService.getRoomById(id);
     }
 
+    @GetMapping("/{id}/occupancy")
+    public List<DailyOccupancyView> getRoomOccupancy(@PathVariable long id,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyOccupancyService.getRoomOccupancy(id, from, to);
+    }
+
+    @GetMapping("/{id}/utilization")
+    public UtilizationReport getRoomUtilization(@PathVariable long id,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return utilizationService.getRoomUtilization(id, from, to);
+    }
+
     @PostMapping()
     public void addOneRoom(@RequestBody Room room) {
         roomService.addRoom(room);
@@ -35,7 +114,8 @@ public class RoomController {
     }
 
     @PutMapping("/{id}")
-    public void updateOneRoom(@PathVariable Long id, @RequestBody Room room) {
-        roomService.updateRoomById(id, room);
+    public void updateOneRoom(@PathVariable Long id, @RequestBody Room room,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        roomService.updateRoomById(id, room, Fingerprint.versionOf(ifMatch));
     }
 }
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import com.example.backend.index.FreeSlot;
+
+import java.util.List;
+
+/**
+ * A room returned by the availability search. Rooms that are free in the whole requested period are
+ * marked as available; for the others the free slots show when the room can be booked instead.
+ */
+public record AvailableRoom(long id,
+                            String name,
+                            String identifier,
+                            int level,
+                            int places,
+                            boolean available,
+                            List<FreeSlot> freeSlots) {
+}
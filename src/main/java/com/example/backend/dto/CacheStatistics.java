@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+/**
+ * Second-level cache usage together with the statement and load counts of Hibernate, so the
+ * database load can be compared with the cache switched on and off.
+ */
+public record CacheStatistics(boolean enabled,
+                              boolean statisticsEnabled,
+                              long preparedStatements,
+                              long entityLoads,
+                              long collectionLoads,
+                              List<RegionStatistics> regions) {
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+/**
+ * Id of the reservation a request created, and whether it was created by an earlier request with
+ * the same Idempotency-Key.
+ */
+public record CreatedReservation(long id, boolean replayed) {
+}
@@ -0,0 +1,9 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+
+public record DailyOccupancyView(long roomId,
+                                 LocalDate day,
+                                 int bookedMinutes,
+                                 int reservationCount) {
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+
+public record DailyUtilization(LocalDate date,
+                               double bookedHours,
+                               double utilization) {
+}
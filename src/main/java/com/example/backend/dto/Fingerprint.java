@@ -0,0 +1,61 @@
+package com.example.backend.dto;
+
+import com.example.backend.exceptions.VersionConflictException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Row count, id sum and version sum of a set of rows. Inserts and deletes change the count or the
+ * id sum, updates raise the version sum, so the fingerprint changes with every write to the rows
+ * while computing it reads only the id and version columns.
+ */
+public record Fingerprint(long rows, long idSum, long versionSum) {
+
+    private static final String VERSION_SEPARATOR = "-";
+
+    public static String etag(Fingerprint... fingerprints) {
+        return "\"" + digest(fingerprints) + "\"";
+    }
+
+    /**
+     * ETag of a single row and the rows it embeds, prefixed with the version of the row so that an
+     * If-Match header sent back with an update can be checked against the row.
+     */
+    public static String etag(long version, Fingerprint... fingerprints) {
+        return "\"" + version + VERSION_SEPARATOR + digest(fingerprints) + "\"";
+    }
+
+    /**
+     * Returns the row version an If-Match header was taken from, or null when the header is absent
+     * or "*" and any version may be overwritten.
+     */
+    public static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        int separator = etag.indexOf(VERSION_SEPARATOR);
+        if (!etag.startsWith("\"") || separator < 1) {
+            throw unknownVersion();
+        }
+        try {
+            return Long.parseLong(etag.substring(1, separator));
+        } catch (NumberFormatException e) {
+            throw unknownVersion();
+        }
+    }
+
+    private static VersionConflictException unknownVersion() {
+        return new VersionConflictException("The If-Match header doesn't match any version of the object");
+    }
+
+    private static String digest(Fingerprint... fingerprints) {
+        String fingerprint = Arrays.stream(fingerprints)
+                .map(part -> part.rows() + ":" + part.idSum() + ":" + part.versionSum())
+                .collect(Collectors.joining("/"));
+        return DigestUtils.md5DigestAsHex(fingerprint.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+/**
+ * Hours booked within one hour of the day, summed over all days and rooms of a report.
+ */
+public record HourlyUtilization(int hour,
+                                double bookedHours) {
+}
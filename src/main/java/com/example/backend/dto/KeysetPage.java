@@ -0,0 +1,38 @@
+package com.example.backend.dto;
+
+import com.example.backend.exceptions.InvalidPageRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+    public static final int MAX_SIZE = 500;
+
+    public static Pageable pageable(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidPageRequestException("The page size must be between 1 and " + MAX_SIZE);
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    public static long idAfter(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new InvalidPageRequestException("The page cursor is invalid");
+        }
+    }
+
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public record OrganizationDetails(long id, String name, List<RoomDetails> rooms) {
+}
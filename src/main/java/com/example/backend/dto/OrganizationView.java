@@ -0,0 +1,4 @@
+package com.example.backend.dto;
+
+public record OrganizationView(long id, String name) {
+}
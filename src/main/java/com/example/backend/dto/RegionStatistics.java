@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+public record RegionStatistics(String region,
+                               long hits,
+                               long misses,
+                               long puts,
+                               long entries) {
+}
@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+/**
+ * Outcome of one reservation of a bulk import, reported at the position it had in the request.
+ */
+public record ReservationImportResult(int index,
+                                      String identifier,
+                                      boolean created,
+                                      Long id,
+                                      String error) {
+
+    public static ReservationImportResult created(int index, String identifier, long id) {
+        return new ReservationImportResult(index, identifier, true, id, null);
+    }
+
+    public static ReservationImportResult failed(int index, String identifier, String error) {
+        return new ReservationImportResult(index, identifier, false, null, error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+public record ReservationView(long id,
+                              String identifier,
+                              LocalDateTime startReservationDateTime,
+                              LocalDateTime endReservationDateTime,
+                              Long roomId) {
+}
@@ -0,0 +1,11 @@
+package com.example.backend.dto;
+
+/**
+ * A bookable room with the number of places of the requested type, as loaded by the availability search.
+ */
+public record RoomCandidate(long id,
+                            String name,
+                            String identifier,
+                            int level,
+                            int places) {
+}
@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Room;
+
+import java.util.List;
+import java.util.Map;
+
+public record RoomDetails(long id,
+                          List<ReservationView> reservations,
+                          String name,
+                          String identifier,
+                          int level,
+                          boolean availability,
+                          Map<Room.PlaceType, Integer> places,
+                          Long organizationId) {
+}
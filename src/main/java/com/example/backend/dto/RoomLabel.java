@@ -0,0 +1,6 @@
+package com.example.backend.dto;
+
+public record RoomLabel(long id,
+                        String name,
+                        String identifier) {
+}
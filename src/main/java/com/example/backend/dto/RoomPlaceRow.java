@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Room;
+
+/**
+ * One row of a room joined with one of its places. A room without places has a single row with no
+ * place type.
+ */
+public record RoomPlaceRow(long id,
+                           String name,
+                           String identifier,
+                           int level,
+                           boolean availability,
+                           Long organizationId,
+                           Room.PlaceType placeType,
+                           Integer numberOfPlaces) {
+}
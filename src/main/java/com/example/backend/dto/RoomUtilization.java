@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+public record RoomUtilization(long id,
+                              String name,
+                              String identifier,
+                              double bookedHours,
+                              double utilization) {
+}
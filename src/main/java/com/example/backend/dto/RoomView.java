@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Room;
+
+import java.util.Map;
+
+public record RoomView(long id,
+                       String name,
+                       String identifier,
+                       int level,
+                       boolean availability,
+                       Long organizationId,
+                       Map<Room.PlaceType, Integer> places) {
+}
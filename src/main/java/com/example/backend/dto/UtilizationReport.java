@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Booked hours of a room or of all rooms of an organization from from (inclusive) to to
+ * (exclusive). Utilization is the booked share of the whole period, around the clock. Rooms are
+ * ordered from the most to the least utilized; idle rooms weren't booked at all.
+ */
+public record UtilizationReport(LocalDate from,
+                                LocalDate to,
+                                double bookedHours,
+                                double utilization,
+                                List<DailyUtilization> days,
+                                List<HourlyUtilization> peakHours,
+                                List<RoomUtilization> rooms,
+                                List<Long> idleRoomIds) {
+}
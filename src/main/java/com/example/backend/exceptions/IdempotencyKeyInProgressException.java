@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class IdempotencyKeyInProgressException extends IllegalStateException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
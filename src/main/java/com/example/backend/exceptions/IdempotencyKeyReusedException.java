@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
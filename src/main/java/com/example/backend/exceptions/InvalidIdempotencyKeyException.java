@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class InvalidIdempotencyKeyException extends IllegalArgumentException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
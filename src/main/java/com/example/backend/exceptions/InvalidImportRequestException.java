@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class InvalidImportRequestException extends IllegalArgumentException {
+    public InvalidImportRequestException(String message) {
+        super(message);
+    }
+}
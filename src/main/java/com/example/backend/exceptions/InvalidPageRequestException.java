@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class InvalidPageRequestException extends IllegalArgumentException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
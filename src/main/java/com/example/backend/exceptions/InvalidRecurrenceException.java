@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class InvalidRecurrenceException extends IllegalArgumentException {
+    public InvalidRecurrenceException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class InvalidSearchRequestException extends IllegalArgumentException {
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.backend.exceptions;
+
+public class VersionConflictException extends IllegalStateException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.feed;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring of the most recently published values, read by any number of readers that each keep their
+ * own cursor. Publishing claims a sequence number with one atomic increment and never waits for
+ * readers, so a slow reader can't hold up publishers or other readers; it only falls further behind
+ * until the values it hasn't read yet are overwritten.
+ */
+final class BroadcastBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final int mask;
+
+    BroadcastBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The broadcast buffer capacity must be positive");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    long publish(T value) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, value));
+        return sequence;
+    }
+
+    /**
+     * Returns the value published with the sequence number, or null while its publisher hasn't
+     * stored it yet or once it was overwritten, which {@link #isOverwritten(long)} tells apart.
+     */
+    T get(long sequence) {
+        Slot<T> slot = slots.get((int) (sequence & mask));
+        return slot != null && slot.sequence() == sequence ? slot.value() : null;
+    }
+
+    boolean isOverwritten(long sequence) {
+        return nextSequence.get() - sequence > slots.length();
+    }
+
+    /**
+     * The sequence number the next published value gets.
+     */
+    long nextSequence() {
+        return nextSequence.get();
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private record Slot<T>(long sequence, T value) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.backend.feed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change of a reservation or of the availability of a room, as sent to the subscribers
+ * of the change feed. Fields that don't apply to the type of the change are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEvent(Type type, long roomId, Long reservationId, LocalDateTime startReservationDateTime,
+                          LocalDateTime endReservationDateTime, Boolean availability) {
+
+    public enum Type {
+        RESERVATION_CREATED,
+        RESERVATION_UPDATED,
+        RESERVATION_DELETED,
+        ROOM_AVAILABILITY_CHANGED,
+        ROOM_DELETED
+    }
+
+    public static ChangeEvent reservation(Type type, long roomId, long reservationId,
+                                          LocalDateTime startReservationDateTime, LocalDateTime endReservationDateTime) {
+        return new ChangeEvent(type, roomId, reservationId, startReservationDateTime, endReservationDateTime, null);
+    }
+
+    public static ChangeEvent roomAvailabilityChanged(long roomId, boolean availability) {
+        return new ChangeEvent(Type.ROOM_AVAILABILITY_CHANGED, roomId, null, null, null, availability);
+    }
+
+    public static ChangeEvent roomDeleted(long roomId) {
+        return new ChangeEvent(Type.ROOM_DELETED, roomId, null, null, null, null);
+    }
+}
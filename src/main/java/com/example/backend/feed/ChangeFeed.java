@@ -0,0 +1,183 @@
+package com.example.backend.feed;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans committed changes out to server-sent event subscribers. Changes go into a bounded broadcast
+ * buffer and every subscriber is drained by a sender task on a fixed pool, at most one task per
+ * subscriber at a time, so a client that reads slowly only blocks its own sends. Publishing checks
+ * how far each subscriber got, and one that falls a whole buffer behind is dropped right away, even
+ * while its sender is still blocked writing to it. It reconnects with the Last-Event-ID it got to,
+ * finds that the buffer no longer reaches back to it and is told to reload with a RESET event.
+ */
+@Component
+public class ChangeFeed {
+
+    static final String RESET_EVENT = "RESET";
+
+    Logger LOGGER = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final BroadcastBuffer<ChangeEvent> buffer;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final LongAdder dropped = new LongAdder();
+
+    public ChangeFeed(@Value("${app.change-feed.capacity:1024}") int capacity,
+                      @Value("${app.change-feed.sender-threads:4}") int senderThreads) {
+        if (senderThreads < 1) {
+            throw new IllegalArgumentException("The number of change feed sender threads must be positive");
+        }
+        this.buffer = new BroadcastBuffer<>(capacity);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-feed-");
+        threadFactory.setDaemon(true);
+        this.senders = Executors.newFixedThreadPool(senderThreads, threadFactory);
+    }
+
+    public void publish(ChangeEvent event) {
+        buffer.publish(event);
+        for (Subscriber subscriber : subscribers) {
+            if (buffer.isOverwritten(subscriber.cursor)) {
+                drop(subscriber);
+            } else {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes published from now on, or from the change after lastEventId when the buffer
+     * still holds it, to the emitter. Only changes of the given room are sent when roomId is set.
+     */
+    public void subscribe(SseEmitter emitter, Long roomId, Long lastEventId) {
+        long next = buffer.nextSequence();
+        boolean resumable = lastEventId != null && lastEventId < next && !buffer.isOverwritten(lastEventId + 1);
+        Subscriber subscriber = new Subscriber(emitter, roomId, resumable ? lastEventId + 1 : next,
+                lastEventId != null && !resumable);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        LOGGER.debug("Change feed subscriber added from sequence {}", subscriber.cursor);
+        schedule(subscriber);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublishedCount() {
+        return buffer.nextSequence();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * The emitter is completed by a sender task rather than by the publisher, because completing
+     * waits for a send that is blocked on a client that stopped reading.
+     */
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            LOGGER.debug("Dropping change feed subscriber lagging behind at sequence {}", subscriber.cursor);
+            dropped.increment();
+            subscriber.dropped = true;
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Runs while the subscriber holds the draining flag. The flag is released before checking for
+     * changes published in the meantime, so a change is either sent by this task or schedules a new one.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            try {
+                if (!send(subscriber)) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.debug("Change feed subscriber disconnected: {}", e.getMessage());
+                subscribers.remove(subscriber);
+                return;
+            }
+            subscriber.draining.set(false);
+        } while ((subscriber.dropped || isReadable(subscriber.cursor)) && subscriber.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Sends the changes stored so far and returns false once the subscriber is dropped. A change
+     * whose publisher hasn't stored it yet ends the task; that publisher schedules a new one.
+     */
+    private boolean send(Subscriber subscriber) throws IOException {
+        if (subscriber.resetPending) {
+            subscriber.emitter.send(SseEmitter.event().name(RESET_EVENT).data(RESET_EVENT));
+            subscriber.resetPending = false;
+        }
+        while (!subscriber.dropped && isReadable(subscriber.cursor)) {
+            ChangeEvent event = buffer.get(subscriber.cursor);
+            if (event == null) {
+                drop(subscriber);
+                break;
+            }
+            if (subscriber.roomId == null || subscriber.roomId == event.roomId()) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(subscriber.cursor))
+                        .name(event.type().name())
+                        .data(event));
+            }
+            subscriber.cursor++;
+        }
+        return !subscriber.dropped;
+    }
+
+    private boolean isReadable(long sequence) {
+        return sequence < buffer.nextSequence() && (buffer.get(sequence) != null || buffer.isOverwritten(sequence));
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long roomId;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Only written by the task holding the draining flag, read by publishers to detect lag
+        private volatile long cursor;
+        private volatile boolean dropped;
+        // Only read and written by the task holding the draining flag
+        private boolean resetPending;
+
+        private Subscriber(SseEmitter emitter, Long roomId, long cursor, boolean resetPending) {
+            this.emitter = emitter;
+            this.roomId = roomId;
+            this.cursor = cursor;
+            this.resetPending = resetPending;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.feed;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChangeFeedMetrics implements MeterBinder {
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("change.feed.subscribers", changeFeed, ChangeFeed::getSubscriberCount)
+                .description("Connected change feed subscribers")
+                .register(registry);
+        FunctionCounter.builder("change.feed.published", changeFeed, ChangeFeed::getPublishedCount)
+                .description("Changes published to the change feed")
+                .register(registry);
+        FunctionCounter.builder("change.feed.dropped", changeFeed, ChangeFeed::getDroppedCount)
+                .description("Subscribers disconnected for falling a whole buffer behind")
+                .register(registry);
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.backend.handlers;
 
+import com.example.backend.config.MetricsConfiguration;
 import com.example.backend.exceptions.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -10,9 +13,14 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
 public class CustomExceptionHandler {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(ConstraintViolationException.class)
     public String handleViolationException(ConstraintViolationException e){
+        count(e);
         StringBuilder sb = new StringBuilder("Error: ");
         int i = 0;
         for (ConstraintViolation violation: e.getConstraintViolations()){
@@ -27,36 +35,89 @@ public class CustomExceptionHandler {
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(ObjectNotFoundException.class)
     public String handleObjectNotFoundException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(ObjectAlreadyExistsException.class)
     public String handleObjectAlreadyExistsException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(StartDateAfterEndDateException.class)
     public String handleStartDateAfterEndDateException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(StartDateEqualsEndDateException.class)
     public String handleStartDateEqualsEndDateException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(DateInThePastException.class)
     public String handleDateInThePastException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(RoomAvailableException.class)
     public String handleRoomAvailableException(Exception e) {
-        return e.getMessage();
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public String handleInvalidPageRequestException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    public String handleInvalidSearchRequestException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidImportRequestException.class)
+    public String handleInvalidImportRequestException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRecurrenceException.class)
+    public String handleInvalidRecurrenceException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(VersionConflictException.class)
+    public String handleVersionConflictException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public String handleInvalidIdempotencyKeyException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public String handleIdempotencyKeyInProgressException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public String handleIdempotencyKeyReusedException(Exception e) {
+        return count(e).getMessage();
+    }
+
+    private Exception count(Exception e) {
+        meterRegistry.counter(MetricsConfiguration.EXCEPTION_COUNTER, "exception", e.getClass().getSimpleName()).increment();
+        return e;
     }
 }
@@ -0,0 +1,181 @@
+package com.example.backend.idempotency;
+
+import com.example.backend.exceptions.IdempotencyKeyInProgressException;
+import com.example.backend.exceptions.IdempotencyKeyReusedException;
+import com.example.backend.exceptions.InvalidIdempotencyKeyException;
+import com.example.backend.model.IdempotencyKey;
+import com.example.backend.repository.IdempotencyKeyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reservations created by requests with an Idempotency-Key header, so that a retried request gets
+ * the reservation of the first one without running its checks again. The most recently used keys
+ * are kept in memory, at most the configured number until they expire; when persistence is enabled
+ * they are also written to the idempotency_keys table in the transaction that creates the
+ * reservation, so retries reaching another instance or arriving after a restart are answered too.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    @Value("${app.idempotency.ttl:24h}")
+    Duration ttl;
+
+    @Value("${app.idempotency.max-keys:10000}")
+    int maxKeys;
+
+    @Value("${app.idempotency.persistent:false}")
+    boolean persistent;
+
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private Map<String, Entry> entries;
+
+    @PostConstruct
+    void initialize() {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("The number of idempotency keys must be positive");
+        }
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /**
+     * Returns the id of the reservation an earlier request with the key created, or null once the
+     * key is claimed for this request, which then has to {@link #release(String)} it. A key used
+     * with a different request or claimed by a request still in progress is rejected.
+     */
+    public Long claim(String key, String requestHash) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("The Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Long reservationId = find(key, requestHash);
+        if (reservationId != null) {
+            return reservationId;
+        }
+        if (!inProgress.add(key)) {
+            LOGGER.debug("A request with idempotency key {} is in progress", key);
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is in progress");
+        }
+        // The request holding the key before may have finished in the meantime
+        reservationId = find(key, requestHash);
+        if (reservationId != null) {
+            inProgress.remove(key);
+        }
+        return reservationId;
+    }
+
+    /**
+     * Records the reservation created for the key in the current transaction, replacing the row of
+     * an earlier use of the key that expired but wasn't purged yet. The key becomes visible in
+     * memory only once the transaction commits.
+     */
+    public void record(String key, String requestHash, long reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        if (persistent) {
+            try {
+                idempotencyKeyRepository.deleteIfExpired(key, now);
+                idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(key, requestHash, reservationId, expiresAt));
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.debug("The idempotency key {} was recorded by another instance", key);
+                throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is in progress");
+            }
+        }
+        Entry entry = new Entry(requestHash, reservationId, expiresAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(key, entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(key, entry);
+            }
+        });
+    }
+
+    public void release(String key) {
+        inProgress.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+        }
+        if (persistent) {
+            LOGGER.debug("Purged {} expired idempotency keys", idempotencyKeyRepository.deleteExpired(now));
+        }
+    }
+
+    private Long find(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null && persistent) {
+            entry = idempotencyKeyRepository.findUnexpired(key, now)
+                    .map(stored -> new Entry(stored.getRequestHash(), stored.getReservationId(), stored.getExpiresAt()))
+                    .orElse(null);
+            if (entry != null) {
+                put(key, entry);
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.requestHash().equals(requestHash)) {
+            LOGGER.debug("The idempotency key {} was used with a different request", key);
+            throw new IdempotencyKeyReusedException("The Idempotency-Key was already used with a different request");
+        }
+        LOGGER.debug("Replaying the request with idempotency key {}", key);
+        return entry.reservationId();
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Entry(String requestHash, long reservationId, LocalDateTime expiresAt) {
+
+        boolean isExpired(LocalDateTime now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.index;
+
+import java.time.LocalDateTime;
+
+/**
+ * A gap between the reservations of a room. The end is null when no reservation follows the gap.
+ */
+public record FreeSlot(LocalDateTime start,
+                       LocalDateTime end) {
+}
@@ -0,0 +1,9 @@
+package com.example.backend.index;
+
+import java.time.LocalDateTime;
+
+public record Occurrence(long seriesId,
+                         long roomId,
+                         LocalDateTime start,
+                         LocalDateTime end) {
+}
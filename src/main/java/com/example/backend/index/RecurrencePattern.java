@@ -0,0 +1,110 @@
+package com.example.backend.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Occurrences of a reservation series: the first one starts at firstStart and every following one
+ * starts step later, up to lastStart, or forever when lastStart is null. Occurrences are computed
+ * from their number, so checks and windows never expand more of the series than they need.
+ */
+public record RecurrencePattern(long seriesId,
+                                long roomId,
+                                LocalDateTime firstStart,
+                                Duration duration,
+                                Duration step,
+                                LocalDateTime lastStart) {
+
+    public LocalDateTime startOf(long occurrence) {
+        return firstStart.plus(step.multipliedBy(occurrence));
+    }
+
+    public LocalDateTime lastEnd() {
+        return lastStart == null ? null : lastStart.plus(duration);
+    }
+
+    /**
+     * Whether any occurrence overlaps the period, touching periods included like for reservations.
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        long occurrence = firstStartingAtOrAfter(start.minus(duration));
+        return exists(occurrence) && !startOf(occurrence).isAfter(end);
+    }
+
+    /**
+     * Whether any occurrences of the two series overlap. Once both series have started, their
+     * relative position repeats every least common multiple of the steps, so only the occurrences
+     * up to one such period after the later first start have to be checked.
+     */
+    public boolean overlaps(RecurrencePattern other) {
+        long stepSeconds = step.getSeconds();
+        long otherStepSeconds = other.step.getSeconds();
+        long period = stepSeconds / gcd(stepSeconds, otherStepSeconds) * otherStepSeconds;
+        LocalDateTime horizon = (firstStart.isAfter(other.firstStart) ? firstStart : other.firstStart)
+                .plusSeconds(period)
+                .plus(duration)
+                .plus(other.duration);
+        for (long occurrence = firstStartingAtOrAfter(other.firstStart.minus(duration));
+             exists(occurrence) && !startOf(occurrence).isAfter(horizon);
+             occurrence++) {
+            LocalDateTime start = startOf(occurrence);
+            if (other.lastEnd() != null && start.isAfter(other.lastEnd())) {
+                return false;
+            }
+            if (other.overlaps(start, start.plus(duration))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The occurrences overlapping the period from (inclusive) to (exclusive).
+     */
+    public List<Occurrence> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        LocalDateTime earliestStart = from.minus(duration);
+        long occurrence = firstStartingAtOrAfter(earliestStart);
+        if (startOf(occurrence).isEqual(earliestStart)) {
+            occurrence++;
+        }
+        for (; exists(occurrence) && startOf(occurrence).isBefore(to); occurrence++) {
+            occurrences.add(occurrence(occurrence));
+        }
+        return occurrences;
+    }
+
+    /**
+     * The first occurrence starting at or after the given date, or null when the series ends before.
+     */
+    public Occurrence firstOccurrenceFrom(LocalDateTime date) {
+        long occurrence = firstStartingAtOrAfter(date);
+        return exists(occurrence) ? occurrence(occurrence) : null;
+    }
+
+    private Occurrence occurrence(long occurrence) {
+        LocalDateTime start = startOf(occurrence);
+        return new Occurrence(seriesId, roomId, start, start.plus(duration));
+    }
+
+    private boolean exists(long occurrence) {
+        return lastStart == null || !startOf(occurrence).isAfter(lastStart);
+    }
+
+    private long firstStartingAtOrAfter(LocalDateTime date) {
+        if (!date.isAfter(firstStart)) {
+            return 0;
+        }
+        long occurrence = Duration.between(firstStart, date).getSeconds() / step.getSeconds();
+        while (startOf(occurrence).isBefore(date)) {
+            occurrence++;
+        }
+        return occurrence;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
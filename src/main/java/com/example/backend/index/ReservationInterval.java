@@ -0,0 +1,13 @@
+package com.example.backend.index;
+
+import java.time.LocalDateTime;
+
+public record ReservationInterval(long reservationId,
+                                  long roomId,
+                                  LocalDateTime start,
+                                  LocalDateTime end) {
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return !start.isAfter(otherEnd) && !end.isBefore(otherStart);
+    }
+}
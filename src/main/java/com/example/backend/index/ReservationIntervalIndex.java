@@ -0,0 +1,247 @@
+package com.example.backend.index;
+
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.ReservationSeriesRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory view of the reservation periods and reservation series of every room, used to answer
+ * overlap checks without querying the database. It is seeded from the repositories on startup and
+ * kept in sync by the services on every reservation write. Changes made inside a transaction are
+ * visible to other writers right away and are reverted if the transaction rolls back. Writes of
+ * other application instances don't reach it, so the index is only complete with a single
+ * instance; with more, the PostgreSQL exclusion constraint still rejects overlapping bookings, but
+ * availability and utilization answered from the index miss the other instances' reservations.
+ */
+@Component
+@DependsOn("postgresSchemaInitializer")
+public class ReservationIntervalIndex {
+
+    Logger LOGGER = LoggerFactory.getLogger(ReservationIntervalIndex.class);
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ReservationSeriesRepository reservationSeriesRepository;
+
+    private final Map<Long, RoomTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, ReservationInterval> intervalsByReservationId = new ConcurrentHashMap<>();
+    private final Map<Long, RecurrencePattern> seriesById = new ConcurrentHashMap<>();
+    private final AtomicLong longestReservationSeconds = new AtomicLong();
+
+    @PostConstruct
+    void loadFromRepository() {
+        LOGGER.info("Loading reservation interval index");
+        load(reservationRepository.findAllIntervals());
+        reservationSeriesRepository.findAll().forEach(series -> putSeriesPattern(series.toPattern()));
+        LOGGER.info("The reservation interval index was loaded with {} reservations and {} series",
+                intervalsByReservationId.size(), seriesById.size());
+    }
+
+    public void load(Collection<ReservationInterval> intervals) {
+        intervals.forEach(this::replace);
+    }
+
+    public boolean hasOverlap(RecurrencePattern pattern) {
+        RoomTimeline timeline = timelines.get(pattern.roomId());
+        return timeline != null && timeline.hasOverlap(pattern);
+    }
+
+    public void putSeries(RecurrencePattern pattern) {
+        putSeriesPattern(pattern);
+        onRollback(() -> removeSeriesPattern(pattern.seriesId()));
+    }
+
+    public void removeSeries(long seriesId) {
+        RecurrencePattern previous = removeSeriesPattern(seriesId);
+        if (previous != null) {
+            onRollback(() -> putSeriesPattern(previous));
+        }
+    }
+
+    /**
+     * The occurrences of the series of the room that overlap the period from (inclusive) to (exclusive).
+     */
+    public List<Occurrence> occurrences(long roomId, LocalDateTime from, LocalDateTime to) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline == null ? List.of() : timeline.occurrences(from, to);
+    }
+
+    public boolean hasOverlap(long roomId, LocalDateTime start, LocalDateTime end) {
+        return hasOverlapExcluding(roomId, RoomTimeline.NO_RESERVATION, start, end);
+    }
+
+    public boolean hasOverlapExcluding(long roomId, long reservationId, LocalDateTime start, LocalDateTime end) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline != null && timeline.hasOverlap(start, end, reservationId);
+    }
+
+    /**
+     * The rooms, in the given order, that are free from from to to on every one of the days. Each
+     * day of a room costs a few word-wise ANDs of its slot bitmap with the window; the reservations
+     * are only walked for the days a reservation touches the window.
+     */
+    public List<Long> freeRooms(Collection<Long> roomIds, Collection<LocalDate> days, LocalTime from, LocalTime to) {
+        long[] window = SlotBitmap.mask(from, to);
+        return roomIds.stream()
+                .filter(roomId -> {
+                    RoomTimeline timeline = timelines.get(roomId);
+                    return timeline == null || timeline.isFreeOnDays(days, from, to, window);
+                })
+                .toList();
+    }
+
+    public void put(ReservationInterval interval) {
+        ReservationInterval previous = replace(interval);
+        revertOnRollback(interval.reservationId(), previous);
+    }
+
+    public void remove(long reservationId) {
+        ReservationInterval previous = intervalsByReservationId.remove(reservationId);
+        if (previous != null) {
+            removeFromTimeline(previous);
+            revertOnRollback(reservationId, previous);
+        }
+    }
+
+    public void removeRoom(long roomId) {
+        timelines.remove(roomId);
+        List<ReservationInterval> intervals = intervalsByReservationId.values().stream()
+                .filter(interval -> interval.roomId() == roomId)
+                .toList();
+        intervals.forEach(interval -> intervalsByReservationId.remove(interval.reservationId()));
+        List<RecurrencePattern> series = seriesById.values().stream()
+                .filter(pattern -> pattern.roomId() == roomId)
+                .toList();
+        series.forEach(pattern -> seriesById.remove(pattern.seriesId()));
+        onRollback(() -> {
+            LOGGER.debug("Restoring room {} in the interval index after rollback", roomId);
+            intervals.forEach(this::replace);
+            series.forEach(this::putSeriesPattern);
+        });
+    }
+
+    /**
+     * The longest reservation of the room, which bounds how long before a period a reservation
+     * overlapping it can start.
+     */
+    public Duration longestReservation(long roomId) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline == null ? Duration.ZERO : timeline.longestReservation();
+    }
+
+    public Duration longestReservation() {
+        return Duration.ofSeconds(longestReservationSeconds.get());
+    }
+
+    /**
+     * The first gaps of at least minimumLength between the reservations of the room, starting from
+     * the given date and looking no further than until.
+     */
+    public List<FreeSlot> freeSlots(long roomId, LocalDateTime from, LocalDateTime until, Duration minimumLength, int limit) {
+        RoomTimeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return limit > 0 ? List.of(new FreeSlot(from, null)) : List.of();
+        }
+        return timeline.freeSlots(from, until, minimumLength, limit);
+    }
+
+    /**
+     * Booked seconds of the room per day from from (inclusive) to to (exclusive) and hour of day.
+     * Reservations are summed up per hour when they are written, so this costs one lookup per day
+     * plus the series occurrences in the period, however many reservations the room has.
+     */
+    public long[][] bookedSeconds(long roomId, LocalDate from, LocalDate to) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline == null
+                ? new long[(int) ChronoUnit.DAYS.between(from, to)][RoomTimeline.HOURS_PER_DAY]
+                : timeline.bookedSeconds(from, to);
+    }
+
+    public int size(long roomId) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline == null ? 0 : timeline.size();
+    }
+
+    private ReservationInterval replace(ReservationInterval interval) {
+        ReservationInterval previous = intervalsByReservationId.put(interval.reservationId(), interval);
+        if (previous != null) {
+            removeFromTimeline(previous);
+        }
+        timelines.computeIfAbsent(interval.roomId(), roomId -> new RoomTimeline()).add(interval);
+        Duration duration = Duration.between(interval.start(), interval.end());
+        long roundedUpSeconds = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+        longestReservationSeconds.accumulateAndGet(roundedUpSeconds, Math::max);
+        return previous;
+    }
+
+    private void putSeriesPattern(RecurrencePattern pattern) {
+        seriesById.put(pattern.seriesId(), pattern);
+        timelines.computeIfAbsent(pattern.roomId(), roomId -> new RoomTimeline()).addSeries(pattern);
+    }
+
+    private RecurrencePattern removeSeriesPattern(long seriesId) {
+        RecurrencePattern previous = seriesById.remove(seriesId);
+        if (previous != null) {
+            RoomTimeline timeline = timelines.get(previous.roomId());
+            if (timeline != null) {
+                timeline.removeSeries(seriesId);
+            }
+        }
+        return previous;
+    }
+
+    private void revertOnRollback(long reservationId, ReservationInterval previous) {
+        onRollback(() -> {
+            LOGGER.debug("Reverting reservation {} in the interval index after rollback", reservationId);
+            if (previous == null) {
+                ReservationInterval current = intervalsByReservationId.remove(reservationId);
+                if (current != null) {
+                    removeFromTimeline(current);
+                }
+            } else {
+                replace(previous);
+            }
+        });
+    }
+
+    private void onRollback(Runnable revert) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    revert.run();
+                }
+            }
+        });
+    }
+
+    private void removeFromTimeline(ReservationInterval interval) {
+        RoomTimeline timeline = timelines.get(interval.roomId());
+        if (timeline != null) {
+            timeline.remove(interval);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.backend.index;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Reservations of a single room ordered by start date, and the reservation series of the room. The
+ * reservations of a room never overlap each other, so ordered by start they are ordered by end as
+ * well, and of the reservations starting before a period only the last one can reach into it. An
+ * overlap lookup therefore costs O(log n) for the reservation starting last before the end of the
+ * period and its predecessor, plus one calculation per series. The booked seconds of every hour
+ * are summed up as reservations are added and removed, so utilization reports don't have to visit
+ * the reservations at all, and the 15 minute slots they touch are kept in a bitmap, so a free
+ * period is recognized without walking the reservations.
+ */
+class RoomTimeline {
+    static final int HOURS_PER_DAY = 24;
+    static final long NO_RESERVATION = -1;
+
+    private static final Comparator<Key> ORDER = Comparator
+            .comparing(Key::start)
+            .thenComparingLong(Key::reservationId);
+
+    private final NavigableMap<Key, ReservationInterval> intervals = new TreeMap<>(ORDER);
+    private final Map<Long, RecurrencePattern> series = new HashMap<>();
+    private final NavigableMap<LocalDate, int[]> bookedSecondsByDay = new TreeMap<>();
+    private final SlotBitmap slots = new SlotBitmap();
+    private Duration longestReservation = Duration.ZERO;
+
+    synchronized void add(ReservationInterval interval) {
+        ReservationInterval previous = intervals.put(new Key(interval.start(), interval.reservationId()), interval);
+        if (previous != null) {
+            book(previous, -1);
+            resetSlots(previous);
+        }
+        book(interval, 1);
+        slots.set(interval.start(), interval.end());
+        Duration duration = Duration.between(interval.start(), interval.end());
+        if (duration.compareTo(longestReservation) > 0) {
+            longestReservation = duration;
+        }
+    }
+
+    synchronized void remove(ReservationInterval interval) {
+        ReservationInterval removed = intervals.remove(new Key(interval.start(), interval.reservationId()));
+        if (removed != null) {
+            book(removed, -1);
+            resetSlots(removed);
+        }
+    }
+
+    synchronized void addSeries(RecurrencePattern pattern) {
+        series.put(pattern.seriesId(), pattern);
+    }
+
+    synchronized void removeSeries(long seriesId) {
+        series.remove(seriesId);
+    }
+
+    synchronized boolean isEmpty() {
+        return intervals.isEmpty() && series.isEmpty();
+    }
+
+    synchronized Duration longestReservation() {
+        return longestReservation;
+    }
+
+    synchronized int size() {
+        return intervals.size();
+    }
+
+    synchronized boolean hasOverlap(LocalDateTime start, LocalDateTime end, long excludedReservationId) {
+        return (slots.anySet(start, end) && hasReservationOverlap(start, end, excludedReservationId))
+                || series.values().stream().anyMatch(pattern -> pattern.overlaps(start, end));
+    }
+
+    /**
+     * Whether the room is free from from to to on every one of the days. The days whose slots in
+     * the window are all clear are free without looking at the reservations; only the others are
+     * checked against them.
+     */
+    synchronized boolean isFreeOnDays(Collection<LocalDate> days, LocalTime from, LocalTime to, long[] window) {
+        for (LocalDate day : days) {
+            if (slots.anySet(day, window) && hasReservationOverlap(day.atTime(from), day.atTime(to), NO_RESERVATION)) {
+                return false;
+            }
+        }
+        for (RecurrencePattern pattern : series.values()) {
+            for (LocalDate day : days) {
+                if (pattern.overlaps(day.atTime(from), day.atTime(to))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The reservation starting last before the end of the period has the latest end of all the
+     * reservations starting before it, so it is the only one that has to be checked, or the one
+     * before it when it is the excluded reservation.
+     */
+    private boolean hasReservationOverlap(LocalDateTime start, LocalDateTime end, long excludedReservationId) {
+        Map.Entry<Key, ReservationInterval> last = intervals.floorEntry(new Key(end, Long.MAX_VALUE));
+        if (last != null && last.getValue().reservationId() == excludedReservationId) {
+            last = intervals.lowerEntry(last.getKey());
+        }
+        return last != null && last.getValue().overlaps(start, end);
+    }
+
+    /**
+     * The key from which on the reservations can reach into a period starting at from: the
+     * reservation starting last before it, or from itself when no reservation starts before it.
+     */
+    private Key firstKeyReaching(LocalDateTime from) {
+        Key first = new Key(from, Long.MIN_VALUE);
+        Key before = intervals.lowerKey(first);
+        return before == null ? first : before;
+    }
+
+    /**
+     * Whether a new series would overlap a reservation or another series of the room. Only the
+     * reservations between the first and the last occurrence of the series are visited.
+     */
+    synchronized boolean hasOverlap(RecurrencePattern pattern) {
+        for (ReservationInterval interval : intervals
+                .tailMap(firstKeyReaching(pattern.firstStart()), true)
+                .values()) {
+            if (pattern.lastEnd() != null && interval.start().isAfter(pattern.lastEnd())) {
+                break;
+            }
+            if (pattern.overlaps(interval.start(), interval.end())) {
+                return true;
+            }
+        }
+        return series.values().stream()
+                .anyMatch(other -> other.seriesId() != pattern.seriesId() && pattern.overlaps(other));
+    }
+
+    synchronized List<Occurrence> occurrences(LocalDateTime from, LocalDateTime to) {
+        return series.values().stream()
+                .flatMap(pattern -> pattern.occurrencesBetween(from, to).stream())
+                .sorted(Comparator.comparing(Occurrence::start).thenComparingLong(Occurrence::seriesId))
+                .toList();
+    }
+
+    /**
+     * Booked seconds per day from from (inclusive) to to (exclusive) and hour of day, counting the
+     * reservations and the series occurrences of the room.
+     */
+    synchronized long[][] bookedSeconds(LocalDate from, LocalDate to) {
+        long[][] booked = new long[(int) ChronoUnit.DAYS.between(from, to)][HOURS_PER_DAY];
+        bookedSecondsByDay.subMap(from, true, to, false).forEach((date, hours) -> {
+            long[] day = booked[(int) ChronoUnit.DAYS.between(from, date)];
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                day[hour] += hours[hour];
+            }
+        });
+        LocalDateTime periodStart = from.atStartOfDay();
+        LocalDateTime periodEnd = to.atStartOfDay();
+        for (RecurrencePattern pattern : series.values()) {
+            for (Occurrence occurrence : pattern.occurrencesBetween(periodStart, periodEnd)) {
+                forEachHour(occurrence.start().isBefore(periodStart) ? periodStart : occurrence.start(),
+                        occurrence.end().isAfter(periodEnd) ? periodEnd : occurrence.end(),
+                        (date, hour, seconds) -> booked[(int) ChronoUnit.DAYS.between(from, date)][hour] += seconds);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Walks the reservations and series occurrences from the given date onwards and collects the
+     * gaps between them that are at least minimumLength long and start before until.
+     */
+    synchronized List<FreeSlot> freeSlots(LocalDateTime from, LocalDateTime until, Duration minimumLength, int limit) {
+        List<FreeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Period period : periodsFrom(from, until)) {
+            if (slots.size() >= limit || !cursor.isBefore(until)) {
+                return slots;
+            }
+            if (period.start().isAfter(cursor)) {
+                if (!cursor.plus(minimumLength).isAfter(period.start())) {
+                    slots.add(new FreeSlot(cursor, period.start()));
+                }
+                if (!period.start().isBefore(until)) {
+                    return slots;
+                }
+            }
+            if (period.end().isAfter(cursor)) {
+                cursor = period.end();
+            }
+        }
+        if (slots.size() < limit && cursor.isBefore(until)) {
+            slots.add(new FreeSlot(cursor, null));
+        }
+        return slots;
+    }
+
+    /**
+     * The reservations and occurrences that can overlap the period from from to until, ordered by
+     * start, followed by the first of each starting after it.
+     */
+    private List<Period> periodsFrom(LocalDateTime from, LocalDateTime until) {
+        List<Period> periods = new ArrayList<>();
+        for (ReservationInterval interval : intervals
+                .tailMap(firstKeyReaching(from), true)
+                .values()) {
+            periods.add(new Period(interval.start(), interval.end()));
+            if (!interval.start().isBefore(until)) {
+                break;
+            }
+        }
+        for (RecurrencePattern pattern : series.values()) {
+            pattern.occurrencesBetween(from, until)
+                    .forEach(occurrence -> periods.add(new Period(occurrence.start(), occurrence.end())));
+            Occurrence next = pattern.firstOccurrenceFrom(until);
+            if (next != null) {
+                periods.add(new Period(next.start(), next.end()));
+            }
+        }
+        periods.sort(Comparator.comparing(Period::start));
+        return periods;
+    }
+
+    /**
+     * Clears the slots a removed reservation touched and sets them again for the reservations still
+     * touching them, since two reservations can share the slot one ends and the next starts in.
+     */
+    private void resetSlots(ReservationInterval removed) {
+        slots.clear(removed.start(), removed.end());
+        LocalDateTime from = SlotBitmap.slotStart(removed.start());
+        LocalDateTime to = SlotBitmap.slotEnd(removed.end());
+        for (ReservationInterval interval : intervals
+                .subMap(firstKeyReaching(from), true, new Key(to, Long.MAX_VALUE), true)
+                .values()) {
+            if (interval.overlaps(from, to)) {
+                slots.set(interval.start(), interval.end());
+            }
+        }
+    }
+
+    private void book(ReservationInterval interval, int sign) {
+        forEachHour(interval.start(), interval.end(), (date, hour, seconds) -> {
+            int[] hours = bookedSecondsByDay.computeIfAbsent(date, day -> new int[HOURS_PER_DAY]);
+            hours[hour] += sign * seconds;
+            if (sign < 0 && Arrays.stream(hours).allMatch(booked -> booked == 0)) {
+                bookedSecondsByDay.remove(date);
+            }
+        });
+    }
+
+    /**
+     * Splits the period at every full hour and passes the seconds of each part to the action. Both
+     * ends of a part are truncated to seconds, so the parts always add up to the whole period.
+     */
+    private static void forEachHour(LocalDateTime start, LocalDateTime end, HourAction action) {
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDateTime nextHour = cursor.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            LocalDateTime partEnd = nextHour.isBefore(end) ? nextHour : end;
+            long seconds = Duration.between(cursor.truncatedTo(ChronoUnit.SECONDS), partEnd.truncatedTo(ChronoUnit.SECONDS))
+                    .getSeconds();
+            action.accept(cursor.toLocalDate(), cursor.getHour(), (int) seconds);
+            cursor = partEnd;
+        }
+    }
+
+    private interface HourAction {
+        void accept(LocalDate date, int hour, int seconds);
+    }
+
+    private record Key(LocalDateTime start, long reservationId) {
+    }
+
+    private record Period(LocalDateTime start, LocalDateTime end) {
+    }
+}
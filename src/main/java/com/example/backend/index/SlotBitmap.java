@@ -0,0 +1,126 @@
+package com.example.backend.index;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The 15 minute slots of one room that a reservation touches, as 96 bits per day kept in two
+ * longs. Touching includes both ends of a reservation, like the overlap checks, so a clear window
+ * is always free while a set bit only says that a reservation touches the slot. Not thread-safe;
+ * the owning timeline synchronizes access.
+ */
+class SlotBitmap {
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final NavigableMap<LocalDate, long[]> slotsByDay = new TreeMap<>();
+
+    void set(LocalDateTime start, LocalDateTime end) {
+        forEachDay(start, end, (date, mask) -> {
+            long[] words = slotsByDay.computeIfAbsent(date, day -> new long[WORDS_PER_DAY]);
+            for (int i = 0; i < WORDS_PER_DAY; i++) {
+                words[i] |= mask[i];
+            }
+        });
+    }
+
+    void clear(LocalDateTime start, LocalDateTime end) {
+        forEachDay(start, end, (date, mask) -> {
+            long[] words = slotsByDay.get(date);
+            if (words == null) {
+                return;
+            }
+            boolean empty = true;
+            for (int i = 0; i < WORDS_PER_DAY; i++) {
+                words[i] &= ~mask[i];
+                empty &= words[i] == 0;
+            }
+            if (empty) {
+                slotsByDay.remove(date);
+            }
+        });
+    }
+
+    /**
+     * Whether a reservation touches any slot the period touches. Only the days with bookings in the
+     * period are visited.
+     */
+    boolean anySet(LocalDateTime start, LocalDateTime end) {
+        for (Map.Entry<LocalDate, long[]> day : slotsByDay.subMap(start.toLocalDate(), true, end.toLocalDate(), true).entrySet()) {
+            if (intersects(day.getValue(), dayMask(day.getKey(), start, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean anySet(LocalDate date, long[] mask) {
+        return intersects(slotsByDay.get(date), mask);
+    }
+
+    /**
+     * The slots of a day touched by the period from from to to, both included.
+     */
+    static long[] mask(LocalTime from, LocalTime to) {
+        return mask(slot(from), slot(to));
+    }
+
+    /**
+     * The start of the slot the time falls in.
+     */
+    static LocalDateTime slotStart(LocalDateTime time) {
+        return time.toLocalDate().atTime(LocalTime.MIN.plusMinutes((long) slot(time.toLocalTime()) * SLOT_MINUTES));
+    }
+
+    static LocalDateTime slotEnd(LocalDateTime time) {
+        return slotStart(time).plusMinutes(SLOT_MINUTES);
+    }
+
+    private static boolean intersects(long[] words, long[] mask) {
+        if (words == null) {
+            return false;
+        }
+        long common = 0;
+        for (int i = 0; i < WORDS_PER_DAY; i++) {
+            common |= words[i] & mask[i];
+        }
+        return common != 0;
+    }
+
+    private static int slot(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private static long[] mask(int firstSlot, int lastSlot) {
+        long[] mask = new long[WORDS_PER_DAY];
+        for (int i = 0; i < WORDS_PER_DAY; i++) {
+            int from = Math.max(firstSlot - i * Long.SIZE, 0);
+            int to = Math.min(lastSlot - i * Long.SIZE, Long.SIZE - 1);
+            if (from <= to) {
+                mask[i] = (-1L >>> (Long.SIZE - 1 - to)) & (-1L << from);
+            }
+        }
+        return mask;
+    }
+
+    private static void forEachDay(LocalDateTime start, LocalDateTime end, DayAction action) {
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            action.accept(date, dayMask(date, start, end));
+        }
+    }
+
+    private static long[] dayMask(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        int firstSlot = date.equals(start.toLocalDate()) ? slot(start.toLocalTime()) : 0;
+        int lastSlot = date.equals(end.toLocalDate()) ? slot(end.toLocalTime()) : SLOTS_PER_DAY - 1;
+        return mask(firstSlot, lastSlot);
+    }
+
+    private interface DayAction {
+        void accept(LocalDate date, long[] mask);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.backend.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes writers of the same room inside this JVM without a global lock. Rooms are spread over
+ * a fixed number of lock stripes, so writers of different rooms only wait for each other when their
+ * rooms share a stripe. Every stripe records how often and how long writers had to wait for it.
+ */
+@Component
+public class RoomLockManager {
+
+    private final Stripe[] stripes;
+
+    public RoomLockManager(@Value("${app.room-locks.stripes:64}") int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("The number of room lock stripes must be positive");
+        }
+        this.stripes = new Stripe[nextPowerOfTwo(stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public void runWithLock(long roomId, Runnable action) {
+        callWithLock(roomId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T callWithLock(long roomId, Supplier<T> action) {
+        Stripe stripe = stripes[stripeOf(roomId)];
+        stripe.lock();
+        try {
+            return action.get();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the stripes of all given rooms while the action runs. Stripes are always taken in
+     * ascending order, so batch writers cannot deadlock each other or single-room writers.
+     */
+    public <T> T callWithLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] stripeOrder = roomIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripeOrder) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[stripeOrder[i]].lock.unlock();
+            }
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public List<StripeStatistics> getStatistics() {
+        List<StripeStatistics> statistics = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            statistics.add(stripes[i].statistics(i));
+        }
+        return statistics;
+    }
+
+    int stripeOf(long roomId) {
+        long hash = roomId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contendedAcquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicInteger maxQueueLength = new AtomicInteger();
+
+        void lock() {
+            acquisitions.increment();
+            if (lock.tryLock()) {
+                return;
+            }
+            long waitStart = System.nanoTime();
+            maxQueueLength.accumulateAndGet(lock.getQueueLength() + 1, Math::max);
+            lock.lock();
+            long waited = System.nanoTime() - waitStart;
+            contendedAcquisitions.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+
+        StripeStatistics statistics(int index) {
+            return new StripeStatistics(
+                    index,
+                    acquisitions.sum(),
+                    contendedAcquisitions.sum(),
+                    totalWaitNanos.sum(),
+                    maxWaitNanos.get(),
+                    lock.getQueueLength(),
+                    maxQueueLength.get());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.backend.lock;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the room lock statistics summed over all stripes, so the time writers spend waiting
+ * for a room can be told apart from the time they spend in the database.
+ */
+@Component
+public class RoomLockMetrics implements MeterBinder {
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("room.locks.acquisitions", roomLockManager, sum(StripeStatistics::acquisitions))
+                .description("Room lock acquisitions")
+                .register(registry);
+        FunctionCounter.builder("room.locks.contended", roomLockManager, sum(StripeStatistics::contendedAcquisitions))
+                .description("Room lock acquisitions that had to wait for another writer")
+                .register(registry);
+        FunctionCounter.builder("room.locks.wait", roomLockManager,
+                        manager -> sum(StripeStatistics::totalWaitNanos).applyAsDouble(manager) / TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds")
+                .description("Time spent waiting for room locks")
+                .register(registry);
+        Gauge.builder("room.locks.queued", roomLockManager, sum(StripeStatistics::queueLength))
+                .description("Writers currently waiting for a room lock")
+                .register(registry);
+        Gauge.builder("room.locks.stripes", roomLockManager, RoomLockManager::getStripeCount)
+                .register(registry);
+    }
+
+    private static ToDoubleFunction<RoomLockManager> sum(ToDoubleFunction<StripeStatistics> value) {
+        return manager -> manager.getStatistics().stream().mapToDouble(value).sum();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.lock;
+
+public record StripeStatistics(int stripe,
+                               long acquisitions,
+                               long contendedAcquisitions,
+                               long totalWaitNanos,
+                               long maxWaitNanos,
+                               int queueLength,
+                               int maxQueueLength) {
+}
@@ -0,0 +1,99 @@
+package com.example.backend.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Logs one summary line per request instead of a line per step. Server errors and slow requests
+ * are always logged, the others only with the configured sample rate. Streamed responses are
+ * summarized when the async request completes. Runs before the admission limiter, so rejected
+ * requests are summarized as well.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    Logger LOGGER = LoggerFactory.getLogger(RequestSummaryFilter.class);
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestSummaryFilter(@Value("${app.logging.request-summary.sample-rate:0.01}") double sampleRate,
+                                @Value("${app.logging.request-summary.slow-threshold:500ms}") Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("The request summary sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        summarize(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                summarize(request, response, start);
+            }
+        }
+    }
+
+    private void summarize(HttpServletRequest request, HttpServletResponse response, long start) {
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+        boolean always = status >= 500 || elapsed >= slowThresholdNanos;
+        if (!LOGGER.isInfoEnabled() || !(always || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return;
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        LOGGER.info("Request completed {} {} {} {}",
+                kv("method", request.getMethod()),
+                kv("route", route != null ? route : request.getRequestURI()),
+                kv("status", status),
+                kv("duration_ms", elapsed / 1_000_000.0));
+    }
+}
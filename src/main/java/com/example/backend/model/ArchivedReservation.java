@@ -0,0 +1,38 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reservation that ended before the archive horizon, moved out of the reservations table by the
+ * archive job. Archived reservations never change. The room is kept as a plain id, so the history
+ * outlives the room. On PostgreSQL the table is partitioned by month of the end date.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "reservations_archive", indexes = @Index(
+        name = "reservations_archive_room_period_idx",
+        columnList = "room_id, startReservationDateTime"))
+public class ArchivedReservation {
+    @Id
+    @Column(columnDefinition = "integer")
+    private long id;
+
+    private String identifier;
+
+    @Column(name = "room_id", columnDefinition = "integer")
+    private Long roomId;
+
+    private LocalDateTime startReservationDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endReservationDateTime;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,75 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Minutes booked in a room on one day and the number of reservations touching that day. Rows are
+ * kept up to date by every reservation write and deleted together with their room.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "daily_occupancy")
+public class DailyOccupancy implements Persistable<DailyOccupancy.Key> {
+
+    @EmbeddedId
+    private Key id;
+
+    @MapsId("roomId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", columnDefinition = "integer")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Room room;
+
+    private int bookedMinutes;
+
+    private int reservationCount;
+
+    // Rows have assigned ids, so saving a new row would otherwise select it first
+    @Transient
+    private boolean isNew = true;
+
+    public DailyOccupancy(Room room, LocalDate day, int bookedMinutes, int reservationCount) {
+        this.id = new Key(room.getId(), day);
+        this.room = room;
+        this.bookedMinutes = bookedMinutes;
+        this.reservationCount = reservationCount;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(columnDefinition = "integer")
+        private long roomId;
+
+        @Column(name = "occupancy_day")
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reservation created by a request with an Idempotency-Key header, kept until it expires so that
+ * a retry of the request on any instance gets the same reservation back.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = @Index(name = "idempotency_keys_expires_at_idx", columnList = "expiresAt"))
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(nullable = false)
+    private String requestHash;
+
+    @Column(columnDefinition = "integer")
+    private long reservationId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Keys are assigned by the clients, so saving a new key would otherwise select it first
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyKey(String key, String requestHash, long reservationId, LocalDateTime expiresAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.reservationId = reservationId;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -13,6 +17,8 @@ import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organizations")
 @Table(name = "organizations")
 public class Organization {
 
@@ -27,5 +33,11 @@ public class Organization {
     private String name;
 
     @OneToMany(mappedBy = "organization", cascade = CascadeType.REMOVE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organization-rooms")
     private List<Room> rooms;
+
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,11 +15,14 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = @Index(
+        name = "reservations_room_period_idx",
+        columnList = "room_id, startReservationDateTime, endReservationDateTime"))
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    @Column(columnDefinition = "serial")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_id_seq")
+    @SequenceGenerator(name = "reservations_id_seq", sequenceName = "reservations_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer")
     private long id;
 
     @NotBlank
@@ -37,4 +41,9 @@ public class Reservation {
     @Transient
     private long roomId;
 
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
 }
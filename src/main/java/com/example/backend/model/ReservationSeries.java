@@ -0,0 +1,96 @@
+package com.example.backend.model;
+
+import com.example.backend.index.RecurrencePattern;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A reservation repeated with a fixed frequency, like an RRULE with FREQ, INTERVAL and COUNT or
+ * UNTIL. The start and end dates are those of the first occurrence. Occurrences are not stored;
+ * they are calculated for the period that is asked for.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "reservation_series", indexes = @Index(name = "reservation_series_room_idx", columnList = "room_id"))
+public class ReservationSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_series_id_seq")
+    @SequenceGenerator(name = "reservation_series_id_seq", sequenceName = "reservation_series_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer")
+    private long id;
+
+    @NotBlank
+    @Size(min = 2, max = 20)
+    @Column(unique = true)
+    private String identifier;
+
+    private LocalDateTime startReservationDateTime;
+    private LocalDateTime endReservationDateTime;
+
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+
+    private int repeatInterval = 1;
+
+    private Integer occurrences;
+
+    private LocalDateTime untilDateTime;
+
+    @JsonIgnore
+    @ManyToOne(cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
+    @JoinColumn(name = "room_id", columnDefinition = "integer")
+    private Room room;
+
+    @Transient
+    private long roomId;
+
+    public Duration getStep() {
+        return frequency.getUnit().multipliedBy(repeatInterval);
+    }
+
+    public RecurrencePattern toPattern() {
+        Duration step = getStep();
+        LocalDateTime lastStart = null;
+        if (occurrences != null) {
+            lastStart = startReservationDateTime.plus(step.multipliedBy(occurrences - 1));
+        }
+        if (untilDateTime != null) {
+            long lastOccurrence = Duration.between(startReservationDateTime, untilDateTime).getSeconds() / step.getSeconds();
+            LocalDateTime lastStartUntil = startReservationDateTime.plus(step.multipliedBy(lastOccurrence));
+            if (lastStart == null || lastStartUntil.isBefore(lastStart)) {
+                lastStart = lastStartUntil;
+            }
+        }
+        return new RecurrencePattern(
+                id,
+                room == null ? roomId : room.getId(),
+                startReservationDateTime,
+                Duration.between(startReservationDateTime, endReservationDateTime),
+                step,
+                lastStart);
+    }
+
+    public enum Frequency {
+        DAILY(Duration.ofDays(1)), WEEKLY(Duration.ofDays(7));
+
+        private final Duration unit;
+
+        Frequency(Duration unit) {
+            this.unit = unit;
+        }
+
+        public Duration getUnit() {
+            return unit;
+        }
+    }
+}
@@ -6,6 +6,9 @@ import jakarta.validation.constraints.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 import java.util.Map;
@@ -14,12 +17,15 @@ import java.util.Map;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rooms")
+@Table(name = "rooms", indexes = @Index(name = "rooms_organization_idx", columnList = "organization_id"))
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    @Column(columnDefinition = "serial")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_id_seq")
+    @SequenceGenerator(name = "rooms_id_seq", sequenceName = "rooms_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer")
     private long id;
 
     @JsonIgnore
@@ -30,6 +36,10 @@ public class Room {
     @OneToMany(mappedBy = "room", cascade = CascadeType.REMOVE)
     private List<Reservation> reservations;
 
+    @JsonIgnore
+    @OneToMany(mappedBy = "room", cascade = CascadeType.REMOVE)
+    private List<ReservationSeries> reservationSeries;
+
     @NotBlank
     @Size(min = 2, max = 20)
     @Column(unique = true)
@@ -48,6 +58,7 @@ public class Room {
     private boolean availability = true;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room-places")
     @CollectionTable(name = "room_places_mapping", joinColumns = @JoinColumn(name = "room_id"))
     @MapKeyColumn(name = "place_type")
     @Column(name = "number_of_places")
@@ -57,6 +68,11 @@ public class Room {
     @Transient
     private long organizationId;
 
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     public void setNumberOfPlaces(PlaceType placeType, int numberOfPlaces) {
         places.put(placeType, numberOfPlaces);
     }
@@ -0,0 +1,36 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.ReservationView;
+import com.example.backend.model.ArchivedReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    /**
+     * Copies the reservations into the archive with one statement, without loading them. Native,
+     * because the query parser of Spring Data doesn't accept insert statements.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO reservations_archive " +
+            "(id, identifier, room_id, start_reservation_date_time, end_reservation_date_time, archived_at) " +
+            "SELECT id, identifier, room_id, start_reservation_date_time, end_reservation_date_time, :archivedAt " +
+            "FROM reservations WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromReservations(Collection<Long> ids, LocalDateTime archivedAt);
+
+    /**
+     * The end date comes first, so PostgreSQL only scans the partitions of the months the period reaches.
+     */
+    @Query("select new com.example.backend.dto.ReservationView(a.id, a.identifier, a.startReservationDateTime, " +
+            "a.endReservationDateTime, a.roomId) from ArchivedReservation a " +
+            "where a.endReservationDateTime >= :from and a.roomId = :roomId and a.startReservationDateTime < :to " +
+            "order by a.startReservationDateTime, a.id")
+    List<ReservationView> findAllByRoomInPeriod(long roomId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,50 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.model.DailyOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyOccupancyRepository extends JpaRepository<DailyOccupancy, DailyOccupancy.Key> {
+    String DAILY_OCCUPANCY_VIEW = "select new com.example.backend.dto.DailyOccupancyView(o.id.roomId, o.id.day, " +
+            "o.bookedMinutes, o.reservationCount) from DailyOccupancy o ";
+
+    /**
+     * Adds to the row of the day in one statement, so concurrent writers of the same day can't
+     * overwrite each other. Returns 0 when the day has no row yet.
+     */
+    @Modifying
+    @Query("update DailyOccupancy o set o.bookedMinutes = o.bookedMinutes + :minutes, " +
+            "o.reservationCount = o.reservationCount + :reservations where o.id.roomId = :roomId and o.id.day = :day")
+    int addToDay(long roomId, LocalDate day, int minutes, int reservations);
+
+    /**
+     * Deletes the row of the day when adding the given number of reservations would leave none, so
+     * removing the last reservation of a day takes one statement instead of an update and a delete.
+     */
+    @Modifying
+    @Query("delete from DailyOccupancy o where o.id.roomId = :roomId and o.id.day = :day " +
+            "and o.reservationCount + :reservations <= 0")
+    int deleteIfEmptyAfter(long roomId, LocalDate day, int reservations);
+
+    @Modifying
+    @Query("delete from DailyOccupancy o where o.id.roomId = :roomId and o.id.day >= :from")
+    int deleteByRoomIdFrom(long roomId, LocalDate from);
+
+    @Query("select o from DailyOccupancy o where o.id.roomId in :roomIds and o.id.day >= :from and o.id.day <= :to")
+    List<DailyOccupancy> findByRoomIdsAndPeriod(Collection<Long> roomIds, LocalDate from, LocalDate to);
+
+    @Query(DAILY_OCCUPANCY_VIEW + "where o.id.roomId = :roomId and o.id.day >= :from and o.id.day < :to order by o.id.day")
+    List<DailyOccupancyView> findViewsByRoomId(long roomId, LocalDate from, LocalDate to);
+
+    @Query(DAILY_OCCUPANCY_VIEW + "where o.room.organization.id = :organizationId and o.id.day >= :from and o.id.day < :to " +
+            "order by o.id.roomId, o.id.day")
+    List<DailyOccupancyView> findViewsByOrganizationId(long organizationId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,30 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Query("select k from IdempotencyKey k where k.key = :key and k.expiresAt > :now")
+    Optional<IdempotencyKey> findUnexpired(String key, LocalDateTime now);
+
+    /**
+     * Deletes the key if it expired but wasn't purged yet, so that it can be used again.
+     */
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.expiresAt <= :now")
+    int deleteIfExpired(String key, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -1,13 +1,62 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.OrganizationView;
 import com.example.backend.model.Organization;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
+    String ORGANIZATION_VIEW = "select new com.example.backend.dto.OrganizationView(o.id, o.name) from Organization o ";
+    String FINGERPRINT = "select new com.example.backend.dto.Fingerprint(count(o), coalesce(sum(o.id), 0L), " +
+            "coalesce(sum(o.version), 0L)) from Organization o ";
+
+    @Override
+    @EntityGraph(attributePaths = {"rooms", "rooms.places"})
+    List<Organization> findAll();
+
+    @EntityGraph(attributePaths = "rooms")
+    @Query("select o from Organization o where o.id = :id")
+    Optional<Organization> findWithRoomsById(long id);
+
     boolean existsByName(String string);
 
+    @Transactional
+    @Modifying
+    @Query("update Organization o set o.name = :name, o.version = o.version + 1 " +
+            "where o.id = :id and (:version is null or o.version = :version)")
+    int updateName(long id, String name, Long version);
+
+    @Query(FINGERPRINT)
+    Fingerprint fingerprint();
+
+    @Query(FINGERPRINT + "where o.id = :id")
+    Fingerprint fingerprintById(long id);
+
+    @Query(ORGANIZATION_VIEW + "order by o.id")
+    List<OrganizationView> findAllViews();
+
+    @Query(ORGANIZATION_VIEW + "where o.id = :id")
+    Optional<OrganizationView> findViewById(long id);
+
+    @Query(ORGANIZATION_VIEW + "where o.id > :id order by o.id")
+    List<OrganizationView> findViewsAfterId(long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query(ORGANIZATION_VIEW + "order by o.id")
+    Stream<OrganizationView> streamAllViews();
 }
@@ -1,21 +1,121 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.index.ReservationInterval;
 import com.example.backend.model.Reservation;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    String RESERVATION_VIEW = "select new com.example.backend.dto.ReservationView(r.id, r.identifier, " +
+            "r.startReservationDateTime, r.endReservationDateTime, r.room.id) from Reservation r ";
+    String FINGERPRINT = "select new com.example.backend.dto.Fingerprint(count(r), coalesce(sum(r.id), 0L), " +
+            "coalesce(sum(r.version), 0L)) from Reservation r ";
+
     boolean existsByIdentifier(String string);
 
+    boolean existsByIdentifierAndIdNot(String string, long id);
+
+    @Query(FINGERPRINT)
+    Fingerprint fingerprint();
+
+    @Query(FINGERPRINT + "where r.id = :id")
+    Fingerprint fingerprintById(long id);
+
+    @Query(FINGERPRINT + "where r.room.id = :roomId")
+    Fingerprint fingerprintByRoomId(long roomId);
+
+    @Query(FINGERPRINT + "where r.room.organization.id = :organizationId")
+    Fingerprint fingerprintByOrganizationId(long organizationId);
+
+    @Query("select r.identifier from Reservation r where r.identifier in :identifiers")
+    List<String> findExistingIdentifiers(Collection<String> identifiers);
+
     List<Reservation> findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
             long roomId, LocalDateTime startDate, LocalDateTime endDate);
 
     List<Reservation> findAllByIdNotAndRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
             long reservationId, long roomId, LocalDateTime endDate, LocalDateTime startDate);
 
+    @Query("select new com.example.backend.index.ReservationInterval(r.id, r.room.id, " +
+            "r.startReservationDateTime, r.endReservationDateTime) from Reservation r " +
+            "where r.startReservationDateTime is not null and r.endReservationDateTime is not null")
+    List<ReservationInterval> findAllIntervals();
+
+    @Query("select new com.example.backend.index.ReservationInterval(r.id, r.room.id, " +
+            "r.startReservationDateTime, r.endReservationDateTime) from Reservation r " +
+            "where r.room.id = :roomId and r.startReservationDateTime is not null and r.endReservationDateTime >= :from")
+    List<ReservationInterval> findIntervalsByRoomIdEndingFrom(long roomId, LocalDateTime from);
+
+    /**
+     * The next batch of reservations the archive job moves, oldest ids first.
+     */
+    @Query("select new com.example.backend.index.ReservationInterval(r.id, r.room.id, " +
+            "r.startReservationDateTime, r.endReservationDateTime) from Reservation r " +
+            "where r.endReservationDateTime < :horizon order by r.id")
+    List<ReservationInterval> findIntervalsEndingBefore(LocalDateTime horizon, Pageable pageable);
+
+    @Query("select new com.example.backend.index.ReservationInterval(r.id, r.room.id, " +
+            "r.startReservationDateTime, r.endReservationDateTime) from Reservation r " +
+            "where r.id in :ids and r.endReservationDateTime < :horizon")
+    List<ReservationInterval> findIntervalsByIdInEndingBefore(Collection<Long> ids, LocalDateTime horizon);
+
+    @Modifying
+    @Query("delete from Reservation r where r.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    @Query("select r.room.id from Reservation r where r.id = :id")
+    Optional<Long> findRoomIdById(long id);
+
+    @Query(RESERVATION_VIEW + "order by r.id")
+    List<ReservationView> findAllViews();
+
+    @Query(RESERVATION_VIEW + "where r.id = :id")
+    Optional<ReservationView> findViewById(long id);
+
+    @Query(RESERVATION_VIEW + "where r.room.id in :roomIds order by r.id")
+    List<ReservationView> findViewsByRoomIdIn(Collection<Long> roomIds);
+
+    @Query(RESERVATION_VIEW + "where r.id > :id order by r.id")
+    List<ReservationView> findViewsAfterId(long id, Pageable pageable);
+
+    @Query(RESERVATION_VIEW + "where r.startReservationDateTime is not null order by r.startReservationDateTime, r.id")
+    List<ReservationView> findViewsOrderedByStart(Pageable pageable);
+
+    @Query(RESERVATION_VIEW + "where r.startReservationDateTime > :start " +
+            "or (r.startReservationDateTime = :start and r.id > :id) " +
+            "order by r.startReservationDateTime, r.id")
+    List<ReservationView> findViewsAfterStart(LocalDateTime start, long id, Pageable pageable);
+
+    @Query(RESERVATION_VIEW + "where r.room.id = :roomId " +
+            "and r.startReservationDateTime >= :earliestStart and r.startReservationDateTime < :to " +
+            "and r.endReservationDateTime > :from " +
+            "order by r.startReservationDateTime, r.id")
+    List<ReservationView> findAllByRoomInPeriod(long roomId, LocalDateTime from, LocalDateTime to, LocalDateTime earliestStart);
+
+    @Query(RESERVATION_VIEW + "where r.room.organization.id = :organizationId " +
+            "and r.startReservationDateTime >= :earliestStart and r.startReservationDateTime < :to " +
+            "and r.endReservationDateTime > :from " +
+            "order by r.startReservationDateTime, r.id")
+    List<ReservationView> findAllByOrganizationInPeriod(long organizationId, LocalDateTime from, LocalDateTime to,
+                                                        LocalDateTime earliestStart);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(RESERVATION_VIEW + "order by r.id")
+    Stream<ReservationView> streamAllViews();
 }
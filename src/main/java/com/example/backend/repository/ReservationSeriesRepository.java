@@ -0,0 +1,16 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Long> {
+    boolean existsByIdentifier(String string);
+
+    @Query("select s.room.id from ReservationSeries s where s.id = :id")
+    Optional<Long> findRoomIdById(long id);
+}
@@ -1,15 +1,88 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.RoomCandidate;
+import com.example.backend.dto.RoomLabel;
+import com.example.backend.dto.RoomPlaceRow;
 import com.example.backend.model.Room;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
+    String ROOM_PLACE_ROW = "select new com.example.backend.dto.RoomPlaceRow(r.id, r.name, r.identifier, r.level, " +
+            "r.availability, r.organization.id, key(p), value(p)) from Room r left join r.places p ";
+    String ROOM_LABEL = "select new com.example.backend.dto.RoomLabel(r.id, r.name, r.identifier) from Room r ";
+    String FINGERPRINT = "select new com.example.backend.dto.Fingerprint(count(r), coalesce(sum(r.id), 0L), " +
+            "coalesce(sum(r.version), 0L)) from Room r ";
+
+    @Override
+    @EntityGraph(attributePaths = "places")
+    List<Room> findAll();
+
     boolean existsByName(String string);
 
     boolean existsByIdentifier(String string);
 
     boolean existsByNameAndIdNot(String string, long id);
     boolean existsByIdentifierAndIdNot(String string, long id);
+
+    @Query(FINGERPRINT)
+    Fingerprint fingerprint();
+
+    @Query(FINGERPRINT + "where r.id = :id")
+    Fingerprint fingerprintById(long id);
+
+    @Query(FINGERPRINT + "where r.organization.id = :organizationId")
+    Fingerprint fingerprintByOrganizationId(long organizationId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForUpdate(long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id in :ids order by r.id")
+    List<Room> findAllByIdForUpdate(Collection<Long> ids);
+
+    @Query("select new com.example.backend.dto.RoomCandidate(r.id, r.name, r.identifier, r.level, coalesce(value(p), 0)) " +
+            "from Room r left join r.places p on key(p) = :placeType " +
+            "where r.organization.id = :organizationId and r.availability = true " +
+            "and coalesce(value(p), 0) >= :minPlaces")
+    List<RoomCandidate> findAvailabilityCandidates(long organizationId, Room.PlaceType placeType, int minPlaces);
+
+    @Query(ROOM_PLACE_ROW + "order by r.id")
+    List<RoomPlaceRow> findAllRoomPlaceRows();
+
+    @Query(ROOM_PLACE_ROW + "where r.id in :ids order by r.id")
+    List<RoomPlaceRow> findRoomPlaceRowsByIdIn(Collection<Long> ids);
+
+    @Query(ROOM_PLACE_ROW + "where r.organization.id in :organizationIds order by r.id")
+    List<RoomPlaceRow> findRoomPlaceRowsByOrganizationIdIn(Collection<Long> organizationIds);
+
+    @Query(ROOM_LABEL + "where r.id = :id")
+    Optional<RoomLabel> findLabelById(long id);
+
+    @Query(ROOM_LABEL + "where r.organization.id = :organizationId order by r.id")
+    List<RoomLabel> findLabelsByOrganizationId(long organizationId);
+
+    @Query("select r.id from Room r where r.id > :id order by r.id")
+    List<Long> findIdsAfter(long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query(ROOM_PLACE_ROW + "order by r.id")
+    Stream<RoomPlaceRow> streamRoomPlaceRows();
 }
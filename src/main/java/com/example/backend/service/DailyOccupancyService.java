@@ -0,0 +1,285 @@
+package com.example.backend.service;
+
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.exceptions.InvalidSearchRequestException;
+import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.lock.RoomLockManager;
+import com.example.backend.model.DailyOccupancy;
+import com.example.backend.model.Room;
+import com.example.backend.repository.DailyOccupancyRepository;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily occupancy rollup, one row per room and day with the booked minutes and the
+ * number of reservations, so reports don't have to scan the reservations. The reservation writers
+ * update it in their own transaction; a nightly job rebuilds it from the reservations.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class DailyOccupancyService {
+
+    static final int MAX_PERIOD_DAYS = 366;
+    static final int REBUILD_BATCH_SIZE = 100;
+
+    Logger LOGGER = LoggerFactory.getLogger(DailyOccupancyService.class);
+
+    @Autowired
+    DailyOccupancyRepository dailyOccupancyRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ReservationArchiveService reservationArchiveService;
+
+    public List<DailyOccupancyView> getRoomOccupancy(long roomId, LocalDate from, LocalDate to) {
+        LOGGER.debug("Searching for daily occupancy of room {} from {} to {}", roomId, from, to);
+        checkPeriod(from, to);
+        List<DailyOccupancyView> days = dailyOccupancyRepository.findViewsByRoomId(roomId, from, to);
+        if (days.isEmpty() && !roomRepository.existsById(roomId)) {
+            LOGGER.debug("The room with id {} not found", roomId);
+            throw new ObjectNotFoundException("The room with inserted id doesn't exist");
+        }
+        return days;
+    }
+
+    public List<DailyOccupancyView> getOrganizationOccupancy(long organizationId, LocalDate from, LocalDate to) {
+        LOGGER.debug("Searching for daily occupancy of organization {} from {} to {}", organizationId, from, to);
+        checkPeriod(from, to);
+        List<DailyOccupancyView> days = dailyOccupancyRepository.findViewsByOrganizationId(organizationId, from, to);
+        if (days.isEmpty() && !organizationRepository.existsById(organizationId)) {
+            LOGGER.debug("The organization with id {} not found", organizationId);
+            throw new ObjectNotFoundException("There is no organization with inserted id");
+        }
+        return days;
+    }
+
+    /**
+     * Adds a reservation to the rows of the days it touches. Must run in the transaction of the
+     * reservation write and under the room lock, which keeps two writers from inserting the same row.
+     */
+    public void add(long roomId, LocalDateTime start, LocalDateTime end) {
+        Map<DailyOccupancy.Key, int[]> changes = new LinkedHashMap<>();
+        collect(changes, roomId, start, end, 1);
+        apply(changes);
+    }
+
+    public void remove(long roomId, LocalDateTime start, LocalDateTime end) {
+        Map<DailyOccupancy.Key, int[]> changes = new LinkedHashMap<>();
+        collect(changes, roomId, start, end, -1);
+        apply(changes);
+    }
+
+    /**
+     * Moves a reservation from its previous period and room to the new ones, writing only the days
+     * whose totals actually change. Both rooms must be locked.
+     */
+    public void move(long previousRoomId, LocalDateTime previousStart, LocalDateTime previousEnd,
+                     long roomId, LocalDateTime start, LocalDateTime end) {
+        Map<DailyOccupancy.Key, int[]> changes = new LinkedHashMap<>();
+        collect(changes, previousRoomId, previousStart, previousEnd, -1);
+        collect(changes, roomId, start, end, 1);
+        apply(changes);
+    }
+
+    /**
+     * Adds a batch of reservations with one select of the rows they touch, so the changed and new
+     * rows go out in JDBC batches instead of one statement per day. Every room of the batch must be
+     * locked, because the rows are updated from the values read.
+     */
+    public void addAll(List<ReservationInterval> intervals) {
+        Map<DailyOccupancy.Key, int[]> changes = new LinkedHashMap<>();
+        intervals.forEach(interval -> collect(changes, interval.roomId(), interval.start(), interval.end(), 1));
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<Long> roomIds = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (DailyOccupancy.Key key : changes.keySet()) {
+            roomIds.add(key.getRoomId());
+            from = key.getDay().isBefore(from) ? key.getDay() : from;
+            to = key.getDay().isAfter(to) ? key.getDay() : to;
+        }
+        Map<DailyOccupancy.Key, DailyOccupancy> rows = dailyOccupancyRepository.findByRoomIdsAndPeriod(roomIds, from, to).stream()
+                .collect(Collectors.toMap(DailyOccupancy::getId, Function.identity()));
+        List<DailyOccupancy> newRows = new ArrayList<>();
+        changes.forEach((key, change) -> {
+            DailyOccupancy row = rows.get(key);
+            if (row == null) {
+                newRows.add(new DailyOccupancy(roomRepository.getReferenceById(key.getRoomId()), key.getDay(), change[0], change[1]));
+            } else {
+                row.setBookedMinutes(row.getBookedMinutes() + change[0]);
+                row.setReservationCount(row.getReservationCount() + change[1]);
+            }
+        });
+        dailyOccupancyRepository.saveAll(newRows);
+    }
+
+    private static void collect(Map<DailyOccupancy.Key, int[]> changes, long roomId,
+                                LocalDateTime start, LocalDateTime end, int sign) {
+        minutesPerDay(start, end).forEach((day, minutes) -> {
+            int[] change = changes.computeIfAbsent(new DailyOccupancy.Key(roomId, day), key -> new int[2]);
+            change[0] += sign * minutes;
+            change[1] += sign;
+        });
+    }
+
+    /**
+     * Writes each change with one statement that adds to the stored values, so it can't overwrite a
+     * concurrent write of the same day. A day left without reservations is deleted and a day without
+     * a row gets one when reservations are added; a missing row for a removal means the rollup
+     * drifted, which the next rebuild repairs.
+     */
+    private void apply(Map<DailyOccupancy.Key, int[]> changes) {
+        changes.forEach((key, change) -> {
+            if ((change[0] == 0 && change[1] == 0)
+                    || (change[1] < 0 && dailyOccupancyRepository.deleteIfEmptyAfter(key.getRoomId(), key.getDay(), change[1]) > 0)) {
+                return;
+            }
+            if (dailyOccupancyRepository.addToDay(key.getRoomId(), key.getDay(), change[0], change[1]) == 0) {
+                if (change[1] > 0) {
+                    dailyOccupancyRepository.save(new DailyOccupancy(roomRepository.getReferenceById(key.getRoomId()),
+                            key.getDay(), change[0], change[1]));
+                } else {
+                    LOGGER.warn("No daily occupancy of room {} on {} to remove from", key.getRoomId(), key.getDay());
+                }
+            }
+        });
+    }
+
+    /**
+     * Fills the rollup on the first start after it was added, when it is empty but the
+     * reservations are not.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (dailyOccupancyRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.daily-occupancy.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        LOGGER.info("Rebuilding the daily occupancy rollup");
+        long after = 0;
+        int rooms = 0;
+        List<Long> roomIds;
+        do {
+            roomIds = roomRepository.findIdsAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            roomIds.forEach(this::rebuildRoom);
+            rooms += roomIds.size();
+            if (!roomIds.isEmpty()) {
+                after = roomIds.get(roomIds.size() - 1);
+            }
+        } while (roomIds.size() == REBUILD_BATCH_SIZE);
+        LOGGER.info("The daily occupancy rollup was rebuilt for {} rooms", rooms);
+    }
+
+    /**
+     * Recomputes the rows of the room from its reservations. The room is locked like for a
+     * reservation write, so no reservation of the room can change until the new rows are committed.
+     * Only the days after the archive horizon are recomputed; every reservation touching them is
+     * still in the reservations table, while the rows of earlier days also count archived ones.
+     */
+    public void rebuildRoom(long roomId) {
+        LocalDate firstDay = reservationArchiveService.getHorizon().toLocalDate().plusDays(1);
+        roomLockManager.runWithLock(roomId, () -> transactionTemplate.executeWithoutResult(status -> {
+            Optional<Room> room = roomRepository.findByIdForUpdate(roomId);
+            if (room.isEmpty()) {
+                LOGGER.debug("The room with id {} was deleted before its occupancy was rebuilt", roomId);
+                return;
+            }
+            dailyOccupancyRepository.deleteByRoomIdFrom(roomId, firstDay);
+            Map<LocalDate, int[]> days = new TreeMap<>();
+            for (ReservationInterval interval : reservationRepository.findIntervalsByRoomIdEndingFrom(roomId, firstDay.atStartOfDay())) {
+                minutesPerDay(interval.start(), interval.end()).forEach((day, minutes) -> {
+                    if (day.isBefore(firstDay)) {
+                        return;
+                    }
+                    int[] totals = days.computeIfAbsent(day, key -> new int[2]);
+                    totals[0] += minutes;
+                    totals[1]++;
+                });
+            }
+            dailyOccupancyRepository.saveAll(days.entrySet().stream()
+                    .map(day -> new DailyOccupancy(room.get(), day.getKey(), day.getValue()[0], day.getValue()[1]))
+                    .toList());
+        }));
+    }
+
+    private void checkPeriod(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The occupancy search period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_PERIOD_DAYS) {
+            LOGGER.debug("The occupancy search period is too long");
+            throw new InvalidSearchRequestException("The search period can't be longer than " + MAX_PERIOD_DAYS + " days");
+        }
+    }
+
+    /**
+     * Whole minutes of the period on each day it touches. Both ends are truncated to minutes, so
+     * the days always add up to the minutes of the whole period.
+     */
+    static Map<LocalDate, Integer> minutesPerDay(LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, Integer> minutes = new LinkedHashMap<>();
+        if (start == null || end == null) {
+            return minutes;
+        }
+        LocalDateTime cursor = start.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime last = end.truncatedTo(ChronoUnit.MINUTES);
+        while (cursor.isBefore(last)) {
+            LocalDateTime nextDay = cursor.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime partEnd = nextDay.isBefore(last) ? nextDay : last;
+            minutes.put(cursor.toLocalDate(), (int) Duration.between(cursor, partEnd).toMinutes());
+            cursor = partEnd;
+        }
+        if (minutes.isEmpty() && start.isBefore(end)) {
+            minutes.put(start.toLocalDate(), 0);
+        }
+        return minutes;
+    }
+}
@@ -1,21 +1,49 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.OrganizationDetails;
+import com.example.backend.dto.OrganizationView;
+import com.example.backend.dto.RoomDetails;
 import com.example.backend.exceptions.ObjectAlreadyExistsException;
 import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.exceptions.VersionConflictException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
 import com.example.backend.model.Organization;
 import com.example.backend.model.Room;
 import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
 import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class OrganizationService {
 
+    static final int STREAM_BATCH_SIZE = 100;
+
     Logger LOGGER = LoggerFactory.getLogger(OrganizationService.class);
 
     @Autowired
@@ -24,25 +52,101 @@ public class OrganizationService {
     @Autowired
     RoomRepository roomRepository;
 
-    public List<Organization> getOrganizations() {
-        LOGGER.info("List all organizations");
-        return organizationRepository.findAll();
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Autowired
+    SecondLevelCache secondLevelCache;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    public List<OrganizationDetails> getOrganizations() {
+        LOGGER.debug("List all organizations");
+        return toOrganizationDetails(organizationRepository.findAllViews());
     }
 
-    public Organization getOrganizationById(Long id) {
-        LOGGER.info("Searching for organization with id {}", id);
-        if (organizationRepository.existsById(id)) {
-            LOGGER.info("The organization with id {} was found", id);
-            return organizationRepository.findById(id).get();
-        } else {
-            LOGGER.debug("The organization with id {} not found", id);
-            throw new ObjectNotFoundException("There is no organization with inserted id");
+    public KeysetPage<OrganizationDetails> getOrganizationsPage(String after, int size) {
+        LOGGER.debug("List organizations page after {}", after);
+        KeysetPage<OrganizationView> page = KeysetPage.of(organizationRepository.findViewsAfterId(
+                KeysetPage.idAfter(after), KeysetPage.pageable(size)), size, organization -> String.valueOf(organization.id()));
+        return new KeysetPage<>(toOrganizationDetails(page.items()), page.nextCursor());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamOrganizations(Consumer<OrganizationDetails> consumer) {
+        LOGGER.debug("Stream all organizations");
+        List<OrganizationView> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try (Stream<OrganizationView> organizations = organizationRepository.streamAllViews()) {
+            organizations.forEach(organization -> {
+                batch.add(organization);
+                if (batch.size() == STREAM_BATCH_SIZE) {
+                    toOrganizationDetails(batch).forEach(consumer);
+                    batch.clear();
+                }
+            });
         }
+        toOrganizationDetails(batch).forEach(consumer);
+    }
+
+    public OrganizationDetails getOrganizationById(Long id) {
+        LOGGER.debug("Searching for organization with id {}", id);
+        OrganizationView organization = organizationRepository.findViewById(id).orElseThrow(() -> organizationNotFound(id));
+        LOGGER.debug("The organization with id {} was found", id);
+        return toOrganizationDetails(List.of(organization)).get(0);
+    }
+
+    /**
+     * Version of the GET /organizations response, see {@link RoomService#getRoomsETag()}.
+     */
+    public String getOrganizationsETag() {
+        return Fingerprint.etag(organizationRepository.fingerprint(), roomRepository.fingerprint(),
+                reservationRepository.fingerprint());
+    }
+
+    public String getOrganizationETag(long id) {
+        Fingerprint organization = organizationRepository.fingerprintById(id);
+        if (organization.rows() == 0) {
+            throw organizationNotFound(id);
+        }
+        return Fingerprint.etag(organization.versionSum(), organization, roomRepository.fingerprintByOrganizationId(id),
+                reservationRepository.fingerprintByOrganizationId(id));
+    }
+
+    /**
+     * Loads the rooms of all given organizations with one query and their reservations with one
+     * query per {@link RoomDetailsAssembler#ROOMS_PER_QUERY} rooms.
+     */
+    private List<OrganizationDetails> toOrganizationDetails(List<OrganizationView> organizations) {
+        if (organizations.isEmpty()) {
+            return List.of();
+        }
+        List<Long> organizationIds = organizations.stream().map(OrganizationView::id).toList();
+        Map<Long, List<RoomDetails>> roomsByOrganization = RoomDetailsAssembler.assemble(
+                        roomRepository.findRoomPlaceRowsByOrganizationIdIn(organizationIds),
+                        reservationRepository::findViewsByRoomIdIn).stream()
+                .collect(Collectors.groupingBy(RoomDetails::organizationId));
+        return organizations.stream()
+                .map(organization -> new OrganizationDetails(organization.id(), organization.name(),
+                        roomsByOrganization.getOrDefault(organization.id(), List.of())))
+                .toList();
     }
 
     public void addOrganization(Organization organization) {
-        LOGGER.info("Adding organization");
-        if (organizationRepository.existsById(organization.getId())) {
+        LOGGER.debug("Adding organization");
+        if (organization.getId() != 0 && organizationRepository.existsById(organization.getId())) {
             LOGGER.debug("The organization with id {} already exists", organization.getId());
             throw new ObjectAlreadyExistsException("The organization with inserted id already exists");
         }
@@ -51,53 +155,78 @@ public class OrganizationService {
             throw new ObjectAlreadyExistsException("The organization with inserted name already exists");
         }
         organizationRepository.save(organization);
-        LOGGER.info("The organization was saved");
+        LOGGER.debug("The organization was saved");
     }
 
+    /**
+     * Deletes the organization with its rooms and their reservations under the locks of the rooms
+     * and their row locks. The rooms are read again in the transaction, so a room joining the
+     * organization in the meantime is still row-locked before it is deleted.
+     */
     public void removeOrganizationById(Long id) {
-        LOGGER.info("Deleting organization");
-        if (organizationRepository.existsById(id)) {
-            LOGGER.info("The organization with id {} was found", id);
-            organizationRepository.deleteById(id);
-            LOGGER.info("The organization was deleted");
-        } else {
-            LOGGER.debug("The organization with id {} not found", id);
-            throw new ObjectNotFoundException("There is no organization with inserted id");
-        }
+        LOGGER.debug("Deleting organization");
+        List<Long> lockedRoomIds = roomIdsOf(organizationRepository.findWithRoomsById(id).orElseThrow(() -> organizationNotFound(id)));
+        LOGGER.debug("The organization with id {} was found", id);
+        List<Long> roomIds = roomLockManager.callWithLocks(lockedRoomIds, () -> transactionTemplate.execute(status -> {
+            Organization organization = organizationRepository.findWithRoomsById(id).orElseThrow(() -> organizationNotFound(id));
+            List<Long> currentRoomIds = roomIdsOf(organization);
+            if (!currentRoomIds.isEmpty()) {
+                roomRepository.findAllByIdForUpdate(currentRoomIds);
+            }
+            organizationRepository.delete(organization);
+            currentRoomIds.forEach(reservationIntervalIndex::removeRoom);
+            return currentRoomIds;
+        }));
+        roomIds.forEach(roomId -> changeFeed.publish(ChangeEvent.roomDeleted(roomId)));
+        LOGGER.debug("The organization was deleted");
     }
 
-    public void updateOrganizationNameById(long id, Organization organization) {
-        LOGGER.info("Updating organization");
-        if (organizationRepository.existsById(id)) {
-            LOGGER.info("The organization with id {} was found", id);
-            LOGGER.info("Setting updated fields");
-            organization.setId(id);
-            organizationRepository.save(organization);
-            LOGGER.info("The organization was updated");
-        } else {
-            LOGGER.debug("The organization with id {} not found", id);
-            throw new ObjectNotFoundException("There is no organization with inserted id");
+    private static List<Long> roomIdsOf(Organization organization) {
+        return organization.getRooms().stream().map(Room::getId).toList();
+    }
+
+    /**
+     * Renames the organization with a single UPDATE that only matches the expected version, or any
+     * version when it is null.
+     */
+    public void updateOrganizationNameById(long id, Organization organization, Long version) {
+        LOGGER.debug("Updating organization");
+        Set<ConstraintViolation<Organization>> violations = validator.validate(organization);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        if (organizationRepository.updateName(id, organization.getName(), version) == 0) {
+            if (!organizationRepository.existsById(id)) {
+                throw organizationNotFound(id);
+            }
+            LOGGER.debug("The organization with id {} was changed since version {}", id, version);
+            throw new VersionConflictException("The organization was changed in the meantime");
         }
+        LOGGER.debug("The organization was updated");
     }
 
     public void addRoomToOrganization(long organizationId, long roomId) {
-        LOGGER.info("Adding room to organization");
-        if (!organizationRepository.existsById(organizationId)) {
-            LOGGER.debug("The organization with id {} not found", organizationId);
-            throw new ObjectNotFoundException("There is no organization with inserted id");
-        }
-        LOGGER.info("The organization with id {} was found", organizationId);
-        if (roomRepository.existsById(roomId)) {
-            LOGGER.info("The room with id {} was found", roomId);
-            Organization organization = organizationRepository.findById(organizationId).get();
-            Room room = roomRepository.findById(roomId).get();
-            LOGGER.info("Setting room to organization");
-            room.setOrganization(organization);
-            roomRepository.save(room);
-            LOGGER.info("The room was added to organization");
-        } else {
+        LOGGER.debug("Adding room to organization");
+        Organization organization = findOrganization(organizationId);
+        LOGGER.debug("The organization with id {} was found", organizationId);
+        Room room = roomRepository.findById(roomId).orElseThrow(() -> {
             LOGGER.debug("The room with id {} not found", roomId);
-            throw new ObjectNotFoundException("There is no room with inserted id");
-        }
+            return new ObjectNotFoundException("There is no room with inserted id");
+        });
+        LOGGER.debug("The room with id {} was found", roomId);
+        Long previousOrganizationId = room.getOrganization() == null ? null : room.getOrganization().getId();
+        room.setOrganization(organization);
+        roomRepository.save(room);
+        secondLevelCache.evictOrganizationRooms(previousOrganizationId, organizationId);
+        LOGGER.debug("The room was added to organization");
+    }
+
+    private Organization findOrganization(long id) {
+        return organizationRepository.findById(id).orElseThrow(() -> organizationNotFound(id));
+    }
+
+    private ObjectNotFoundException organizationNotFound(long id) {
+        LOGGER.debug("The organization with id {} not found", id);
+        return new ObjectNotFoundException("There is no organization with inserted id");
     }
 }
@@ -0,0 +1,128 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrganizationView;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomView;
+import com.example.backend.model.Room;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking reads of the JPA schema over R2DBC. Rows are fetched in batches of
+ * {@link #FETCH_SIZE} as the subscriber requests them, so a slow client holds back the query
+ * instead of buffering the whole result.
+ */
+@Service
+public class ReactiveReadService {
+
+    static final int FETCH_SIZE = 500;
+
+    Logger LOGGER = LoggerFactory.getLogger(ReactiveReadService.class);
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    public Flux<OrganizationView> getOrganizations() {
+        LOGGER.debug("Stream all organizations reactively");
+        return databaseClient.sql("SELECT id, name FROM organizations ORDER BY id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(row -> new OrganizationView(idOf(row, "id"), row.get("name", String.class)))
+                .all();
+    }
+
+    /**
+     * Rooms are read joined with their places and ordered by id, so the rows of one room arrive
+     * together and are folded into one view without holding more than one room in memory.
+     */
+    public Flux<RoomView> getRooms() {
+        LOGGER.debug("Stream all rooms reactively");
+        return databaseClient.sql("""
+                        SELECT r.id, r.name, r.identifier, r.level, r.availability, r.organization_id,
+                               p.place_type, p.number_of_places
+                        FROM rooms r
+                        LEFT JOIN room_places_mapping p ON p.room_id = r.id
+                        ORDER BY r.id""")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(RoomRow::of)
+                .all()
+                .bufferUntilChanged(RoomRow::id)
+                .map(ReactiveReadService::toRoomView);
+    }
+
+    public Flux<ReservationView> getReservations(Long roomId) {
+        LOGGER.debug("Stream reservations of room {} reactively", roomId);
+        String columns = "SELECT id, identifier, start_reservation_date_time, end_reservation_date_time, room_id " +
+                "FROM reservations ";
+        DatabaseClient.GenericExecuteSpec spec = roomId == null
+                ? databaseClient.sql(columns + "ORDER BY id")
+                : databaseClient.sql(columns + "WHERE room_id = :roomId ORDER BY id").bind("roomId", roomId);
+        return spec.filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(row -> new ReservationView(
+                        idOf(row, "id"),
+                        row.get("identifier", String.class),
+                        row.get("start_reservation_date_time", LocalDateTime.class),
+                        row.get("end_reservation_date_time", LocalDateTime.class),
+                        idOf(row, "room_id")))
+                .all();
+    }
+
+    /**
+     * The id columns are integers, which not every driver converts to Long.
+     */
+    private static Long idOf(Readable row, String column) {
+        Integer id = row.get(column, Integer.class);
+        return id == null ? null : id.longValue();
+    }
+
+    /**
+     * The ordinal of the place type is a tinyint on H2 and a smallint on PostgreSQL.
+     */
+    private static Integer intOf(Readable row, String column) {
+        Number value = (Number) row.get(column);
+        return value == null ? null : value.intValue();
+    }
+
+    private static RoomView toRoomView(List<RoomRow> rows) {
+        RoomRow room = rows.get(0);
+        Map<Room.PlaceType, Integer> places = new EnumMap<>(Room.PlaceType.class);
+        for (RoomRow row : rows) {
+            if (row.placeType() != null) {
+                places.put(Room.PlaceType.values()[row.placeType()], row.numberOfPlaces());
+            }
+        }
+        return new RoomView(room.id(), room.name(), room.identifier(), room.level(), room.availability(),
+                room.organizationId(), places);
+    }
+
+    private record RoomRow(long id,
+                           String name,
+                           String identifier,
+                           int level,
+                           boolean availability,
+                           Long organizationId,
+                           Integer placeType,
+                           Integer numberOfPlaces) {
+
+        static RoomRow of(Readable row) {
+            return new RoomRow(
+                    idOf(row, "id"),
+                    row.get("name", String.class),
+                    row.get("identifier", String.class),
+                    row.get("level", Integer.class),
+                    row.get("availability", Boolean.class),
+                    idOf(row, "organization_id"),
+                    intOf(row, "place_type"),
+                    row.get("number_of_places", Integer.class));
+        }
+    }
+}
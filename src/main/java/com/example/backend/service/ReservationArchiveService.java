@@ -0,0 +1,143 @@
+package com.example.backend.service;
+
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.config.PostgresSchemaInitializer;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.exceptions.InvalidSearchRequestException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
+import com.example.backend.repository.ArchivedReservationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves reservations that ended before the archive horizon out of the reservations table, so the
+ * overlap checks, lists and the interval index only deal with current and future reservations.
+ * Archived reservations keep counting in the daily occupancy rollup, which is not rebuilt for the
+ * days before the horizon.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class ReservationArchiveService {
+
+    static final int BATCH_SIZE = 1000;
+
+    Logger LOGGER = LoggerFactory.getLogger(ReservationArchiveService.class);
+
+    @Value("${app.reservation-archive.retention:400d}")
+    Duration retention;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ArchivedReservationRepository archivedReservationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PostgresSchemaInitializer postgresSchemaInitializer;
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    /**
+     * Reservations ending before this date are archived.
+     */
+    public LocalDateTime getHorizon() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    public List<ReservationView> getArchivedReservationsInPeriod(long roomId, LocalDateTime from, LocalDateTime to) {
+        LOGGER.debug("Searching for archived reservations of room {} between {} and {}", roomId, from, to);
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The archived reservations search period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        return archivedReservationRepository.findAllByRoomInPeriod(roomId, from, to);
+    }
+
+    @Scheduled(cron = "${app.reservation-archive.cron:0 0 4 * * *}")
+    public void archive() {
+        LocalDateTime horizon = getHorizon();
+        LOGGER.info("Archiving reservations that ended before {}", horizon);
+        int archived = 0;
+        List<ReservationInterval> batch;
+        do {
+            batch = reservationRepository.findIntervalsEndingBefore(horizon, PageRequest.of(0, BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                archived += archiveBatch(batch, horizon);
+            }
+        } while (batch.size() == BATCH_SIZE);
+        LOGGER.info("Archived {} reservations", archived);
+    }
+
+    /**
+     * Copies the batch to the archive and deletes it with one statement each, under the locks of
+     * its rooms like any other reservation write. Reservations changed since the batch was read are
+     * checked against the horizon again. The batch fails without archiving anything when the
+     * partition of a month can't be created. The intervals leave the index in the same transaction
+     * and come back if it rolls back; subscribers of the change feed see the archived reservations
+     * deleted once it commits.
+     */
+    private int archiveBatch(List<ReservationInterval> batch, LocalDateTime horizon) {
+        Set<Long> roomIds = batch.stream().map(ReservationInterval::roomId).collect(Collectors.toSet());
+        List<Long> candidateIds = batch.stream().map(ReservationInterval::reservationId).toList();
+        Set<YearMonth> months = new HashSet<>();
+        batch.forEach(interval -> ensureArchivePartition(months, interval));
+        List<ReservationInterval> archived = roomLockManager.callWithLocks(roomIds, () -> transactionTemplate.execute(status -> {
+            roomRepository.findAllByIdForUpdate(roomIds);
+            List<ReservationInterval> intervals = reservationRepository.findIntervalsByIdInEndingBefore(candidateIds, horizon);
+            if (intervals.isEmpty()) {
+                return intervals;
+            }
+            // A reservation moved since the batch was read may end in another month
+            intervals.forEach(interval -> ensureArchivePartition(months, interval));
+            List<Long> ids = intervals.stream().map(ReservationInterval::reservationId).toList();
+            archivedReservationRepository.copyFromReservations(ids, LocalDateTime.now());
+            reservationRepository.deleteAllByIdIn(ids);
+            ids.forEach(reservationIntervalIndex::remove);
+            return intervals;
+        }));
+        archived.forEach(interval -> changeFeed.publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_DELETED,
+                interval.roomId(), interval.reservationId(), interval.start(), interval.end())));
+        return archived.size();
+    }
+
+    private void ensureArchivePartition(Set<YearMonth> months, ReservationInterval interval) {
+        YearMonth month = YearMonth.from(interval.end());
+        if (months.add(month)) {
+            postgresSchemaInitializer.ensureArchivePartition(month);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.backend.service;
+
+import com.example.backend.exceptions.*;
+import com.example.backend.index.Occurrence;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
+import com.example.backend.model.ReservationSeries;
+import com.example.backend.model.Room;
+import com.example.backend.repository.ReservationSeriesRepository;
+import com.example.backend.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ReservationSeriesService {
+
+    static final int MAX_REPEAT_INTERVAL = 52;
+    static final Duration MAX_OCCURRENCES_PERIOD = Duration.ofDays(366);
+
+    Logger LOGGER = LoggerFactory.getLogger(ReservationSeriesService.class);
+
+    @Autowired
+    ReservationSeriesRepository reservationSeriesRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    public List<ReservationSeries> getReservationSeries() {
+        LOGGER.debug("List all reservation series");
+        return reservationSeriesRepository.findAll();
+    }
+
+    public ReservationSeries getReservationSeriesById(long id) {
+        LOGGER.debug("Searching for reservation series with id {}", id);
+        ReservationSeries series = findReservationSeries(id);
+        LOGGER.debug("The reservation series with id {} was found", id);
+        return series;
+    }
+
+    /**
+     * The occurrences of the series overlapping the period from (inclusive) to (exclusive). Only
+     * the occurrences inside the period are calculated.
+     */
+    public List<Occurrence> getOccurrences(long id, LocalDateTime from, LocalDateTime to) {
+        LOGGER.debug("Listing occurrences of reservation series {} between {} and {}", id, from, to);
+        checkIfPeriodIsValid(from, to);
+        return findReservationSeries(id).toPattern().occurrencesBetween(from, to);
+    }
+
+    public List<Occurrence> getOccurrencesOfRoom(long roomId, LocalDateTime from, LocalDateTime to) {
+        LOGGER.debug("Listing occurrences of reservation series of room {} between {} and {}", roomId, from, to);
+        checkIfPeriodIsValid(from, to);
+        return reservationIntervalIndex.occurrences(roomId, from, to);
+    }
+
+    public void addReservationSeries(ReservationSeries series) {
+        roomLockManager.runWithLock(series.getRoomId(),
+                () -> transactionTemplate.executeWithoutResult(status -> createReservationSeries(series)));
+    }
+
+    private void createReservationSeries(ReservationSeries series) {
+        LOGGER.debug("Reservation series adding");
+        Room room = roomRepository.findByIdForUpdate(series.getRoomId()).orElseThrow(() -> {
+            LOGGER.debug("The room with id {} not found", series.getRoomId());
+            return new ObjectNotFoundException("There is no room with inserted id");
+        });
+        if (series.getId() != 0 && reservationSeriesRepository.existsById(series.getId())) {
+            LOGGER.debug("The reservation series with id {} already exists", series.getId());
+            throw new ObjectAlreadyExistsException("The reservation series with inserted id already exists");
+        }
+        if (reservationSeriesRepository.existsByIdentifier(series.getIdentifier())) {
+            LOGGER.debug("The reservation series with identifier {} already exists", series.getIdentifier());
+            throw new ObjectAlreadyExistsException("The reservation series with inserted identifier already exists");
+        }
+        if (!room.isAvailability()) {
+            LOGGER.debug("The room with id {} is not available", room.getId());
+            throw new RoomAvailableException("The room is not available");
+        }
+        checkIfDateIsValid(series);
+        checkIfRecurrenceIsValid(series);
+        series.setRoom(room);
+        if (reservationIntervalIndex.hasOverlap(series.toPattern())) {
+            LOGGER.debug("The room is already booked in one of the series dates");
+            throw new DateInThePastException("The room is already booked in this date");
+        }
+        ReservationSeries saved = reservationSeriesRepository.save(series);
+        reservationIntervalIndex.putSeries(saved.toPattern());
+        LOGGER.debug("The reservation series was created");
+    }
+
+    /**
+     * Deletes the series under the lock of its room, reading it again once the room row is locked.
+     */
+    public void removeReservationSeriesById(long id) {
+        LOGGER.debug("Reservation series deleting");
+        long roomId = reservationSeriesRepository.findRoomIdById(id).orElseThrow(() -> reservationSeriesNotFound(id));
+        roomLockManager.runWithLock(roomId, () -> transactionTemplate.executeWithoutResult(status -> {
+            roomRepository.findByIdForUpdate(roomId);
+            ReservationSeries series = findReservationSeries(id);
+            LOGGER.debug("The reservation series with id {} was found", id);
+            reservationSeriesRepository.delete(series);
+            reservationIntervalIndex.removeSeries(id);
+        }));
+        LOGGER.debug("The reservation series was deleted");
+    }
+
+    private ReservationSeries findReservationSeries(long id) {
+        return reservationSeriesRepository.findById(id).orElseThrow(() -> reservationSeriesNotFound(id));
+    }
+
+    private ObjectNotFoundException reservationSeriesNotFound(long id) {
+        LOGGER.debug("The reservation series with id {} not found", id);
+        return new ObjectNotFoundException("The Reservation series with inserted id doesn't exist");
+    }
+
+    private void checkIfDateIsValid(ReservationSeries series) {
+        if (series.getStartReservationDateTime() == null || series.getEndReservationDateTime() == null) {
+            LOGGER.debug("The reservation series dates are not set");
+            throw new InvalidRecurrenceException("The start and end date of the first occurrence must be set");
+        }
+        if (series.getStartReservationDateTime().isAfter(series.getEndReservationDateTime())) {
+            LOGGER.debug("The reservation series start date is after end date");
+            throw new StartDateAfterEndDateException("The set date is invalid! Start Date is after End Date");
+        }
+        if (series.getStartReservationDateTime().isEqual(series.getEndReservationDateTime())) {
+            LOGGER.debug("The reservation series start date equals end date");
+            throw new StartDateEqualsEndDateException("The set date is invalid! Start Date is equal End Date");
+        }
+        if (series.getStartReservationDateTime().isBefore(LocalDateTime.now())) {
+            LOGGER.debug("The reservation series starts in the past");
+            throw new DateInThePastException("The selected date is invalid! It cannot be set to a past date");
+        }
+    }
+
+    private void checkIfRecurrenceIsValid(ReservationSeries series) {
+        if (series.getFrequency() == null) {
+            LOGGER.debug("The reservation series frequency is not set");
+            throw new InvalidRecurrenceException("The frequency of the series must be set");
+        }
+        if (series.getRepeatInterval() < 1 || series.getRepeatInterval() > MAX_REPEAT_INTERVAL) {
+            LOGGER.debug("The reservation series interval {} is out of range", series.getRepeatInterval());
+            throw new InvalidRecurrenceException("The repeat interval must be between 1 and " + MAX_REPEAT_INTERVAL);
+        }
+        if (series.getOccurrences() != null && series.getOccurrences() < 1) {
+            LOGGER.debug("The reservation series has no occurrences");
+            throw new InvalidRecurrenceException("The number of occurrences must be positive");
+        }
+        if (series.getUntilDateTime() != null && series.getUntilDateTime().isBefore(series.getStartReservationDateTime())) {
+            LOGGER.debug("The reservation series ends before it starts");
+            throw new InvalidRecurrenceException("The series can't end before its first occurrence");
+        }
+        Duration duration = Duration.between(series.getStartReservationDateTime(), series.getEndReservationDateTime());
+        if (duration.compareTo(series.getStep()) >= 0) {
+            LOGGER.debug("The reservation series occurrences overlap each other");
+            throw new InvalidRecurrenceException("The occurrences of the series can't overlap each other");
+        }
+    }
+
+    private void checkIfPeriodIsValid(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The occurrences period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        if (Duration.between(from, to).compareTo(MAX_OCCURRENCES_PERIOD) > 0) {
+            LOGGER.debug("The occurrences period is too long");
+            throw new InvalidSearchRequestException("The search period can't be longer than " + MAX_OCCURRENCES_PERIOD.toDays() + " days");
+        }
+    }
+}
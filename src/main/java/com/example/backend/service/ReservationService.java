@@ -1,21 +1,55 @@
 package com.example.backend.service;
 
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.dto.CreatedReservation;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.ReservationImportResult;
+import com.example.backend.dto.ReservationView;
 import com.example.backend.exceptions.*;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.idempotency.IdempotencyKeyStore;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
 import com.example.backend.model.Reservation;
 import com.example.backend.model.Room;
 import com.example.backend.repository.ReservationRepository;
 import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class ReservationService {
 
+    static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+    static final String START_CURSOR_SEPARATOR = "_";
+    static final int MAX_IMPORT_SIZE = 1000;
+
     Logger LOGGER = LoggerFactory.getLogger(ReservationService.class);
     @Autowired
     ReservationRepository reservationRepository;
@@ -24,30 +58,138 @@ public class ReservationService {
     RoomRepository roomRepository;
 
     @Autowired
-    RoomService roomService;
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Autowired
+    RoomLockManager roomLockManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Autowired
+    DailyOccupancyService dailyOccupancyService;
+
+    @Autowired
+    IdempotencyKeyStore idempotencyKeyStore;
+
+    public List<ReservationView> getReservations() {
+        LOGGER.debug("List all reservations");
+        return reservationRepository.findAllViews();
+    }
+
+    public KeysetPage<ReservationView> getReservationsPage(String after, int size, String order) {
+        LOGGER.debug("List reservations page after {} ordered by {}", after, order);
+        Pageable pageable = KeysetPage.pageable(size);
+        if ("start".equalsIgnoreCase(order)) {
+            List<ReservationView> reservations = after == null
+                    ? reservationRepository.findViewsOrderedByStart(pageable)
+                    : findReservationsAfterStartCursor(after, pageable);
+            return KeysetPage.of(reservations, size, reservation ->
+                    reservation.startReservationDateTime() + START_CURSOR_SEPARATOR + reservation.id());
+        }
+        if (!"id".equalsIgnoreCase(order)) {
+            LOGGER.debug("The reservations page order {} is not supported", order);
+            throw new InvalidPageRequestException("The page order must be either id or start");
+        }
+        List<ReservationView> reservations = reservationRepository.findViewsAfterId(KeysetPage.idAfter(after), pageable);
+        return KeysetPage.of(reservations, size, reservation -> String.valueOf(reservation.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamReservations(Consumer<ReservationView> consumer) {
+        LOGGER.debug("Stream all reservations");
+        try (Stream<ReservationView> reservations = reservationRepository.streamAllViews()) {
+            reservations.forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns the reservations of one room, or of all rooms of one organization, that overlap the
+     * period from (inclusive) to (exclusive). Reservations overlapping the period cannot start
+     * earlier than the longest reservation before it, which keeps the index range scan bounded.
+     */
+    public List<ReservationView> getReservationsInPeriod(Long roomId, Long organizationId, LocalDateTime from, LocalDateTime to) {
+        LOGGER.debug("Searching for reservations between {} and {}", from, to);
+        if ((roomId == null) == (organizationId == null)) {
+            LOGGER.debug("The reservations search needs either a room or an organization");
+            throw new InvalidSearchRequestException("Exactly one of roomId and organizationId must be set");
+        }
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The reservations search period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        if (roomId != null) {
+            LocalDateTime earliestStart = from.minus(reservationIntervalIndex.longestReservation(roomId));
+            return reservationRepository.findAllByRoomInPeriod(roomId, from, to, earliestStart);
+        }
+        LocalDateTime earliestStart = from.minus(reservationIntervalIndex.longestReservation());
+        return reservationRepository.findAllByOrganizationInPeriod(organizationId, from, to, earliestStart);
+    }
 
-    public List<Reservation> getReservations() {
-        LOGGER.info("List all reservations");
-        return reservationRepository.findAll();
+    public ReservationView getReservationById(long id) {
+        LOGGER.debug("Searching for reservation with id {}", id);
+        ReservationView reservation = reservationRepository.findViewById(id).orElseThrow(() -> reservationNotFound(id));
+        LOGGER.debug("The reservation with id {} was found", id);
+        return reservation;
     }
 
-    public Reservation getReservationById(long id) {
-        LOGGER.info("Searching for reservation with id {}", id);
-        if (!reservationRepository.existsById(id)) {
-            LOGGER.debug("The reservation with id {} not found", id);
-            throw new ObjectNotFoundException("The Reservation with inserted id doesn't exist");
+    public String getReservationETag(long id) {
+        Fingerprint reservation = reservationRepository.fingerprintById(id);
+        if (reservation.rows() == 0) {
+            throw reservationNotFound(id);
         }
-        LOGGER.info("The reservation with id {} was found", id);
-        return reservationRepository.findById(id).get();
+        return Fingerprint.etag(reservation.versionSum(), reservation);
     }
 
     public void addReservation(Reservation reservation) {
-        LOGGER.info("Reservation adding");
-        if (!roomRepository.existsById(reservation.getRoomId())) {
-            LOGGER.debug("The room with id {} not found", reservation.getRoomId());
-            throw new ObjectNotFoundException("There is no room with inserted id");
+        addReservation(reservation, null);
+    }
+
+    /**
+     * Adds the reservation once per idempotency key. A retry with the same key and reservation gets
+     * the reservation the first request created from the idempotency key store, without taking the
+     * room lock or running any query when the key is in memory.
+     */
+    public CreatedReservation addReservation(Reservation reservation, String idempotencyKey) {
+        Reservation created;
+        if (idempotencyKey == null) {
+            created = roomLockManager.callWithLock(reservation.getRoomId(),
+                    () -> transactionTemplate.execute(status -> createReservation(reservation)));
+        } else {
+            String requestHash = requestHash(reservation);
+            Long reservationId = idempotencyKeyStore.claim(idempotencyKey, requestHash);
+            if (reservationId != null) {
+                return new CreatedReservation(reservationId, true);
+            }
+            try {
+                created = roomLockManager.callWithLock(reservation.getRoomId(),
+                        () -> transactionTemplate.execute(status -> {
+                            Reservation saved = createReservation(reservation);
+                            idempotencyKeyStore.record(idempotencyKey, requestHash, saved.getId());
+                            return saved;
+                        }));
+            } finally {
+                idempotencyKeyStore.release(idempotencyKey);
+            }
         }
-        if (reservationRepository.existsById(reservation.getId())) {
+        publishChange(ChangeEvent.Type.RESERVATION_CREATED, created, reservation.getRoomId());
+        return new CreatedReservation(created.getId(), false);
+    }
+
+    /**
+     * Returns the saved reservation: an id sent with it that doesn't exist yet is not kept, the
+     * reservation is stored under the next id of the sequence instead.
+     */
+    private Reservation createReservation(Reservation reservation) {
+        LOGGER.debug("Reservation adding");
+        Room room = findRoomForUpdate(reservation.getRoomId());
+        if (reservation.getId() != 0 && reservationRepository.existsById(reservation.getId())) {
             LOGGER.debug("The reservation with id {} already exists", reservation.getId());
             throw new ObjectAlreadyExistsException("The reservation with inserted id already exists");
         }
@@ -55,68 +197,304 @@ public class ReservationService {
             LOGGER.debug("The reservation with identifier {} already exists", reservation.getIdentifier());
             throw new ObjectAlreadyExistsException("The reservation with inserted identifier already exists");
         }
-        long roomId = reservation.getRoomId();
-        LOGGER.info("Room availability checking");
-        checkIfRoomIsAvailable(reservation.getRoomId());
-        LOGGER.info("Room availability checking completed");
-        LOGGER.info("Reservation date checking");
-        checkIfDateIsValid(reservation, reservation.getRoomId());
-        LOGGER.info("Reservation date checking completed");
-        checkIfRoomIsNotAlreadyBookedInThisDate(reservation, reservation.getRoomId());
-        reservation.setRoom(roomService.getRoomById(roomId));
-        reservationRepository.save(reservation);
-        LOGGER.info("The reservation was created");
+        checkIfRoomIsAvailable(room);
+        checkIfDateIsValid(reservation, room.getId());
+        checkIfRoomIsNotAlreadyBookedInThisDate(reservation, room.getId());
+        reservation.setRoom(room);
+        Reservation saved = saveReservation(reservation);
+        reservationIntervalIndex.put(toInterval(saved, room.getId()));
+        dailyOccupancyService.add(room.getId(), saved.getStartReservationDateTime(), saved.getEndReservationDateTime());
+        LOGGER.debug("The reservation was created");
+        return saved;
+    }
+
+    /**
+     * Imports a batch of reservations in one transaction and reports for each of them whether it was
+     * created or why it was rejected. The reservations of every room are checked in one pass ordered
+     * by start date, against the index and the reservations accepted before them, and the accepted
+     * ones are inserted in JDBC batches.
+     */
+    public List<ReservationImportResult> importReservations(List<Reservation> reservations) {
+        LOGGER.debug("Importing {} reservations", reservations.size());
+        if (reservations.isEmpty() || reservations.size() > MAX_IMPORT_SIZE) {
+            LOGGER.debug("The number of imported reservations is out of range");
+            throw new InvalidImportRequestException("The number of imported reservations must be between 1 and " + MAX_IMPORT_SIZE);
+        }
+        Set<Long> roomIds = reservations.stream().map(Reservation::getRoomId).collect(Collectors.toSet());
+        List<ReservationImportResult> results = roomLockManager.callWithLocks(roomIds,
+                () -> transactionTemplate.execute(status -> importReservationsOfRooms(reservations, roomIds)));
+        results.stream()
+                .filter(ReservationImportResult::created)
+                .map(result -> reservations.get(result.index()))
+                .forEach(reservation -> publishChange(ChangeEvent.Type.RESERVATION_CREATED, reservation, reservation.getRoomId()));
+        return results;
+    }
+
+    private List<ReservationImportResult> importReservationsOfRooms(List<Reservation> reservations, Set<Long> roomIds) {
+        Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Set<String> takenIdentifiers = new HashSet<>(reservationRepository.findExistingIdentifiers(reservations.stream()
+                .map(Reservation::getIdentifier)
+                .filter(Objects::nonNull)
+                .toList()));
+        ReservationImportResult[] results = new ReservationImportResult[reservations.size()];
+        Map<Long, List<Integer>> candidatesByRoom = new HashMap<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            String error = validateImportedReservation(reservation, rooms.get(reservation.getRoomId()));
+            if (error != null) {
+                results[i] = ReservationImportResult.failed(i, reservation.getIdentifier(), error);
+            } else {
+                candidatesByRoom.computeIfAbsent(reservation.getRoomId(), roomId -> new ArrayList<>()).add(i);
+            }
+        }
+        List<Integer> accepted = new ArrayList<>();
+        for (Map.Entry<Long, List<Integer>> candidates : candidatesByRoom.entrySet()) {
+            long roomId = candidates.getKey();
+            candidates.getValue().sort(Comparator.comparing(i -> reservations.get(i).getStartReservationDateTime()));
+            LocalDateTime lastAcceptedEnd = null;
+            for (int i : candidates.getValue()) {
+                Reservation reservation = reservations.get(i);
+                if (takenIdentifiers.contains(reservation.getIdentifier())) {
+                    results[i] = ReservationImportResult.failed(i, reservation.getIdentifier(),
+                            "The reservation with inserted identifier already exists");
+                } else if ((lastAcceptedEnd != null && !reservation.getStartReservationDateTime().isAfter(lastAcceptedEnd))
+                        || reservationIntervalIndex.hasOverlap(roomId, reservation.getStartReservationDateTime(),
+                        reservation.getEndReservationDateTime())) {
+                    results[i] = ReservationImportResult.failed(i, reservation.getIdentifier(),
+                            "The room is already booked in this date");
+                } else {
+                    takenIdentifiers.add(reservation.getIdentifier());
+                    if (lastAcceptedEnd == null || reservation.getEndReservationDateTime().isAfter(lastAcceptedEnd)) {
+                        lastAcceptedEnd = reservation.getEndReservationDateTime();
+                    }
+                    reservation.setRoom(rooms.get(roomId));
+                    accepted.add(i);
+                }
+            }
+        }
+        List<Reservation> acceptedReservations = accepted.stream().map(reservations::get).toList();
+        persist(() -> reservationRepository.saveAll(acceptedReservations));
+        for (int i : accepted) {
+            Reservation reservation = reservations.get(i);
+            reservationIntervalIndex.put(toInterval(reservation, reservation.getRoomId()));
+            results[i] = ReservationImportResult.created(i, reservation.getIdentifier(), reservation.getId());
+        }
+        dailyOccupancyService.addAll(acceptedReservations.stream()
+                .map(reservation -> toInterval(reservation, reservation.getRoomId()))
+                .toList());
+        LOGGER.debug("Imported {} of {} reservations", accepted.size(), reservations.size());
+        return Arrays.asList(results);
+    }
+
+    private String validateImportedReservation(Reservation reservation, Room room) {
+        if (reservation.getId() != 0) {
+            return "Imported reservations can't have an id";
+        }
+        Set<ConstraintViolation<Reservation>> violations = validator.validate(reservation);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Reservation> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (reservation.getStartReservationDateTime() == null || reservation.getEndReservationDateTime() == null) {
+            return "The reservation dates must be set";
+        }
+        if (room == null) {
+            return "There is no room with inserted id";
+        }
+        try {
+            checkIfRoomIsAvailable(room);
+            checkIfDateIsValid(reservation, room.getId());
+        } catch (IllegalArgumentException | NoSuchElementException e) {
+            return e.getMessage();
+        }
+        return null;
     }
 
+    /**
+     * Reads the reservation again once its room is locked, so of two concurrent deletes only the
+     * first one removes it from the rollup and publishes the change; the other one doesn't find it.
+     */
     public void removeReservationById(Long id) {
-        LOGGER.info("Reservation deleting");
-        if (reservationRepository.existsById(id)) {
-            LOGGER.info("The reservation with id {} was found", id);
-            reservationRepository.deleteById(id);
-            LOGGER.info("The reservation was deleted");
-        } else {
-            LOGGER.debug("The reservation with id {} not found", id);
-            throw new ObjectNotFoundException("The Reservation with inserted id doesn't exist");
+        LOGGER.debug("Reservation deleting");
+        long roomId = reservationRepository.findRoomIdById(id).orElseThrow(() -> reservationNotFound(id));
+        Reservation reservation = roomLockManager.callWithLock(roomId, () -> transactionTemplate.execute(status -> {
+            findRoomForUpdate(roomId);
+            Reservation existingReservation = findReservation(id);
+            LOGGER.debug("The reservation with id {} was found", id);
+            if (roomIdOf(existingReservation) != roomId) {
+                LOGGER.debug("The reservation with id {} was moved to another room in the meantime", id);
+                throw new VersionConflictException("The reservation was changed in the meantime");
+            }
+            persist(() -> reservationRepository.delete(existingReservation));
+            reservationIntervalIndex.remove(id);
+            dailyOccupancyService.remove(roomId, existingReservation.getStartReservationDateTime(),
+                    existingReservation.getEndReservationDateTime());
+            return existingReservation;
+        }));
+        publishChange(ChangeEvent.Type.RESERVATION_DELETED, reservation, roomId);
+        LOGGER.debug("The reservation was deleted");
+    }
+
+    /**
+     * Locks the room the reservation is in as well as the one it moves to, because both rooms'
+     * index and occupancy rows change. Subscribers of the room a reservation moves out of see it
+     * deleted there.
+     */
+    public void updateReservationById(Long id, Reservation reservation, Long version) {
+        long previousRoomId = reservationRepository.findRoomIdById(id).orElseThrow(() -> reservationNotFound(id));
+        ReservationInterval previous = roomLockManager.callWithLocks(Set.copyOf(List.of(previousRoomId, reservation.getRoomId())),
+                () -> transactionTemplate.execute(status -> changeReservation(id, reservation, previousRoomId, version)));
+        if (previous.roomId() != reservation.getRoomId()) {
+            changeFeed.publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_DELETED, previous.roomId(), id,
+                    previous.start(), previous.end()));
         }
+        changeFeed.publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_UPDATED, reservation.getRoomId(), id,
+                reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime()));
     }
 
-    public void updateReservationById(Long id, Reservation reservation) {
-        LOGGER.info("Reservation updating");
-        if (!roomRepository.existsById(reservation.getRoomId())) {
-            LOGGER.debug("The room with id {} not found", reservation.getRoomId());
-            throw new ObjectNotFoundException("There is no room with inserted id");
+    /**
+     * Returns the interval the reservation had before the change.
+     */
+    private ReservationInterval changeReservation(Long id, Reservation reservation, long previousRoomId, Long version) {
+        LOGGER.debug("Reservation updating");
+        Room room = findRoomsForUpdate(previousRoomId, reservation.getRoomId());
+        Reservation existingReservation = findReservation(id);
+        if (version != null && existingReservation.getVersion() != version) {
+            throw reservationVersionConflict(id, version);
         }
-        if (reservationRepository.existsById(reservation.getId())) {
-            if (reservationRepository.findById(reservation.getId()).get().getId() != reservation.getId()) {
-                LOGGER.debug("The reservation with id {} already exists", reservation.getId());
-                throw new ObjectAlreadyExistsException("The reservation with inserted id already exists");
+        if (roomIdOf(existingReservation) != previousRoomId) {
+            LOGGER.debug("The reservation with id {} was moved to another room in the meantime", id);
+            throw new VersionConflictException("The reservation was changed in the meantime");
+        }
+        if (reservationRepository.existsByIdentifierAndIdNot(reservation.getIdentifier(), id)) {
+            LOGGER.debug("The reservation with identifier {} already exists", reservation.getIdentifier());
+            throw new ObjectAlreadyExistsException("The reservation with inserted identifier already exists");
+        }
+        LOGGER.debug("The reservation with id {} was found", id);
+        checkIfRoomIsAvailable(room);
+        checkIfDateIsValid(reservation, room.getId());
+        checkIfRoomIsNotAlreadyBookedInThisDateAndWithExcludingThisReservation(reservation, id, room.getId());
+        LocalDateTime previousStart = existingReservation.getStartReservationDateTime();
+        LocalDateTime previousEnd = existingReservation.getEndReservationDateTime();
+        existingReservation.setIdentifier(reservation.getIdentifier());
+        existingReservation.setStartReservationDateTime(reservation.getStartReservationDateTime());
+        existingReservation.setEndReservationDateTime(reservation.getEndReservationDateTime());
+        existingReservation.setRoom(room);
+        saveReservation(existingReservation);
+        reservationIntervalIndex.put(toInterval(existingReservation, room.getId()));
+        dailyOccupancyService.move(previousRoomId, previousStart, previousEnd,
+                room.getId(), reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime());
+        LOGGER.debug("The reservation was updated");
+        return new ReservationInterval(id, previousRoomId, previousStart, previousEnd);
+    }
+
+    private void publishChange(ChangeEvent.Type type, Reservation reservation, long roomId) {
+        changeFeed.publish(ChangeEvent.reservation(type, roomId, reservation.getId(),
+                reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime()));
+    }
+
+    private static String requestHash(Reservation reservation) {
+        String request = reservation.getId() + "|" + reservation.getIdentifier() + "|" + reservation.getRoomId() + "|" +
+                reservation.getStartReservationDateTime() + "|" + reservation.getEndReservationDateTime();
+        return DigestUtils.md5DigestAsHex(request.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Reservation saveReservation(Reservation reservation) {
+        return persist(() -> reservationRepository.save(reservation));
+    }
+
+    private void persist(Runnable write) {
+        persist(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    private <T> T persist(Supplier<T> write) {
+        try {
+            T written = write.get();
+            reservationRepository.flush();
+            return written;
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                LOGGER.debug("The room is already booked in this date");
+                throw new DateInThePastException("The room is already booked in this date");
             }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            LOGGER.debug("The reservation was changed by a concurrent update");
+            throw new VersionConflictException("The reservation was changed in the meantime");
         }
-        if (reservationRepository.existsByIdentifier(reservation.getIdentifier())) {
-            if (!(reservationRepository.findById(reservation.getId()).get().getIdentifier()).equals(reservation.getIdentifier())) {
-                LOGGER.debug("The reservation with identifier {} already exists", reservation.getIdentifier());
-                throw new ObjectAlreadyExistsException("The reservation with inserted identifier already exists");
+    }
+
+    private boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
             }
         }
-        LOGGER.info("The reservation with id {} was found", id);
-        LOGGER.info("Room availability checking");
-        checkIfRoomIsAvailable(reservation.getRoomId());
-        LOGGER.info("Room availability checking completed");
-        LOGGER.info("Reservation date checking");
-        checkIfDateIsValid(reservation, reservation.getRoomId());
-        LOGGER.info("Reservation date checking completed");
-        checkIfRoomIsNotAlreadyBookedInThisDateAndWithExcludingThisReservation(reservation, id, reservation.getRoomId());
-        LOGGER.info("Setting updated fields");
-        reservation.setRoom(roomService.getRoomById(reservation.getRoomId()));
-        reservation.setId(id);
-        reservationRepository.save(reservation);
-        LOGGER.info("The reservation was updated");
-    }
-
-    private void checkIfRoomIsAvailable(long id) {
-        Room room = roomRepository.findById(id).get();
+        return false;
+    }
+
+    private List<ReservationView> findReservationsAfterStartCursor(String cursor, Pageable pageable) {
+        int separator = cursor.lastIndexOf(START_CURSOR_SEPARATOR);
+        try {
+            LocalDateTime start = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            return reservationRepository.findViewsAfterStart(start, id, pageable);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            LOGGER.debug("The reservations page cursor {} is invalid", cursor);
+            throw new InvalidPageRequestException("The page cursor is invalid");
+        }
+    }
+
+    private static long roomIdOf(Reservation reservation) {
+        return reservation.getRoom() == null ? reservation.getRoomId() : reservation.getRoom().getId();
+    }
+
+    private Reservation findReservation(long id) {
+        return reservationRepository.findById(id).orElseThrow(() -> reservationNotFound(id));
+    }
+
+    private VersionConflictException reservationVersionConflict(long id, long version) {
+        LOGGER.debug("The reservation with id {} was changed since version {}", id, version);
+        return new VersionConflictException("The reservation was changed in the meantime");
+    }
+
+    private ObjectNotFoundException reservationNotFound(long id) {
+        LOGGER.debug("The reservation with id {} not found", id);
+        return new ObjectNotFoundException("The Reservation with inserted id doesn't exist");
+    }
+
+    /**
+     * Locks the row of the previous room too when the reservation moves, in id order like an import,
+     * and returns the room it moves to.
+     */
+    private Room findRoomsForUpdate(long previousRoomId, long roomId) {
+        if (previousRoomId == roomId) {
+            return findRoomForUpdate(roomId);
+        }
+        return roomRepository.findAllByIdForUpdate(List.of(previousRoomId, roomId)).stream()
+                .filter(room -> room.getId() == roomId)
+                .findFirst()
+                .orElseThrow(() -> {
+                    LOGGER.debug("The room with id {} not found", roomId);
+                    return new ObjectNotFoundException("There is no room with inserted id");
+                });
+    }
+
+    private Room findRoomForUpdate(long roomId) {
+        return roomRepository.findByIdForUpdate(roomId).orElseThrow(() -> {
+            LOGGER.debug("The room with id {} not found", roomId);
+            return new ObjectNotFoundException("There is no room with inserted id");
+        });
+    }
+
+    private void checkIfRoomIsAvailable(Room room) {
         if (!room.isAvailability()) {
-            LOGGER.debug("The room with id {} is not available", id);
+            LOGGER.debug("The room with id {} is not available", room.getId());
             throw new RoomAvailableException("The room is not available");
         }
     }
@@ -138,11 +516,10 @@ public class ReservationService {
     }
 
     public void checkIfRoomIsNotAlreadyBookedInThisDate(Reservation reservation, long id) {
-        boolean condition = reservationRepository
-                .findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
-                        id,
-                        reservation.getEndReservationDateTime(),
-                        reservation.getStartReservationDateTime()).isEmpty();
+        boolean condition = !reservationIntervalIndex.hasOverlap(
+                id,
+                reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
         if (!condition) {
             LOGGER.debug("The room is already booked in this date");
             throw new DateInThePastException("The room is already booked in this date");
@@ -150,15 +527,22 @@ public class ReservationService {
     }
 
     public void checkIfRoomIsNotAlreadyBookedInThisDateAndWithExcludingThisReservation(Reservation reservation, long id, long roomId) {
-        boolean condition = reservationRepository
-                .findAllByIdNotAndRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
-                        id,
-                        roomId,
-                        reservation.getEndReservationDateTime(),
-                        reservation.getStartReservationDateTime()).isEmpty();
+        boolean condition = !reservationIntervalIndex.hasOverlapExcluding(
+                roomId,
+                id,
+                reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
         if (!condition) {
             LOGGER.debug("The room is already booked in this date");
             throw new DateInThePastException("The room is already booked in this date");
         }
     }
+
+    private ReservationInterval toInterval(Reservation reservation, long roomId) {
+        return new ReservationInterval(
+                reservation.getId(),
+                roomId,
+                reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomDetails;
+import com.example.backend.dto.RoomPlaceRow;
+import com.example.backend.model.Room;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Builds room responses from rows of rooms joined with their places, ordered by room id. The
+ * reservations of the rooms are loaded with one query per {@link #ROOMS_PER_QUERY} rooms instead
+ * of one query per room.
+ */
+final class RoomDetailsAssembler {
+
+    static final int ROOMS_PER_QUERY = 500;
+
+    private RoomDetailsAssembler() {
+    }
+
+    static List<RoomDetails> assemble(List<RoomPlaceRow> rows,
+                                      Function<Collection<Long>, List<ReservationView>> reservationsOf) {
+        List<Long> roomIds = rows.stream().map(RoomPlaceRow::id).distinct().toList();
+        Map<Long, List<ReservationView>> reservationsByRoom = new HashMap<>();
+        for (int from = 0; from < roomIds.size(); from += ROOMS_PER_QUERY) {
+            reservationsOf.apply(roomIds.subList(from, Math.min(from + ROOMS_PER_QUERY, roomIds.size())))
+                    .forEach(reservation -> reservationsByRoom
+                            .computeIfAbsent(reservation.roomId(), roomId -> new ArrayList<>())
+                            .add(reservation));
+        }
+        List<RoomDetails> rooms = new ArrayList<>(roomIds.size());
+        int i = 0;
+        while (i < rows.size()) {
+            RoomPlaceRow room = rows.get(i);
+            Map<Room.PlaceType, Integer> places = new EnumMap<>(Room.PlaceType.class);
+            for (; i < rows.size() && rows.get(i).id() == room.id(); i++) {
+                if (rows.get(i).placeType() != null) {
+                    places.put(rows.get(i).placeType(), rows.get(i).numberOfPlaces());
+                }
+            }
+            rooms.add(new RoomDetails(room.id(), reservationsByRoom.getOrDefault(room.id(), List.of()),
+                    room.name(), room.identifier(), room.level(), room.availability(), places, room.organizationId()));
+        }
+        return rooms;
+    }
+
+    /**
+     * Assembles the streamed rows {@link #ROOMS_PER_QUERY} rooms at a time, never splitting the
+     * rows of one room between two batches.
+     */
+    static void forEach(Stream<RoomPlaceRow> rows,
+                        Function<Collection<Long>, List<ReservationView>> reservationsOf,
+                        Consumer<RoomDetails> consumer) {
+        try (rows) {
+            List<RoomPlaceRow> batch = new ArrayList<>();
+            int[] roomsInBatch = {0};
+            rows.forEach(row -> {
+                boolean newRoom = batch.isEmpty() || batch.get(batch.size() - 1).id() != row.id();
+                if (newRoom && roomsInBatch[0] == ROOMS_PER_QUERY) {
+                    assemble(batch, reservationsOf).forEach(consumer);
+                    batch.clear();
+                    roomsInBatch[0] = 0;
+                }
+                if (newRoom) {
+                    roomsInBatch[0]++;
+                }
+                batch.add(row);
+            });
+            assemble(batch, reservationsOf).forEach(consumer);
+        }
+    }
+}
@@ -1,49 +1,223 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.dto.AvailableRoom;
+import com.example.backend.dto.Fingerprint;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.RoomCandidate;
+import com.example.backend.dto.RoomDetails;
+import com.example.backend.exceptions.InvalidSearchRequestException;
 import com.example.backend.exceptions.ObjectAlreadyExistsException;
 import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.exceptions.VersionConflictException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.FreeSlot;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
+import com.example.backend.model.Organization;
 import com.example.backend.model.Room;
 import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
 import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class RoomService {
     @Autowired
     RoomRepository roomRepository;
     @Autowired
-    OrganizationService organizationService;
-    @Autowired
     OrganizationRepository organizationRepository;
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+    @Autowired
+    ReservationRepository reservationRepository;
+    @Autowired
+    SecondLevelCache secondLevelCache;
+    @Autowired
+    ChangeFeed changeFeed;
+    @Autowired
+    RoomLockManager roomLockManager;
+    @Autowired
+    TransactionTemplate transactionTemplate;
 
-    Logger LOGGER = LoggerFactory.getLogger(ReservationService.class);
+    static final int MAX_AVAILABLE_ROOMS = 100;
+    static final int FREE_SLOTS_PER_ROOM = 3;
+    static final Duration AVAILABILITY_HORIZON = Duration.ofDays(7);
+    static final int MAX_AVAILABILITY_DAYS = 62;
+
+    private static final Comparator<RoomCandidate> BEST_FIT = Comparator
+            .comparingInt(RoomCandidate::places)
+            .thenComparingLong(RoomCandidate::id);
+
+    Logger LOGGER = LoggerFactory.getLogger(RoomService.class);
+
+    public List<RoomDetails> getRooms() {
+        LOGGER.debug("List all rooms");
+        return RoomDetailsAssembler.assemble(roomRepository.findAllRoomPlaceRows(), reservationRepository::findViewsByRoomIdIn);
+    }
+
+    public KeysetPage<RoomDetails> getRoomsPage(String after, int size) {
+        LOGGER.debug("List rooms page after {}", after);
+        KeysetPage<Long> page = KeysetPage.of(roomRepository.findIdsAfter(KeysetPage.idAfter(after), KeysetPage.pageable(size)),
+                size, String::valueOf);
+        List<RoomDetails> rooms = page.items().isEmpty() ? List.of() : RoomDetailsAssembler.assemble(
+                roomRepository.findRoomPlaceRowsByIdIn(page.items()), reservationRepository::findViewsByRoomIdIn);
+        return new KeysetPage<>(rooms, page.nextCursor());
+    }
 
-    public List<Room> getRooms() {
-        LOGGER.info("List all rooms");
-        return roomRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamRooms(Consumer<RoomDetails> consumer) {
+        LOGGER.debug("Stream all rooms");
+        RoomDetailsAssembler.forEach(roomRepository.streamRoomPlaceRows(), reservationRepository::findViewsByRoomIdIn, consumer);
+    }
+
+    /**
+     * Finds bookable rooms of the organization with at least minPlaces places of the given type.
+     * Rooms free in the whole period come first, smallest fitting room first. If there are fewer of
+     * them than the limit, the list is filled with busy rooms ordered by their next free slot long
+     * enough for the period. Capacity is filtered by a single query and the reservation gaps are
+     * read from the interval index.
+     */
+    public List<AvailableRoom> findAvailableRooms(long organizationId, LocalDateTime from, LocalDateTime to,
+                                                  Room.PlaceType placeType, int minPlaces, int limit) {
+        LOGGER.debug("Searching for rooms of organization {} free between {} and {}", organizationId, from, to);
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The availability search period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        if (minPlaces < 0) {
+            LOGGER.debug("The availability search asks for a negative number of places");
+            throw new InvalidSearchRequestException("The number of places can't be negative");
+        }
+        if (limit < 1 || limit > MAX_AVAILABLE_ROOMS) {
+            LOGGER.debug("The availability search limit is out of range");
+            throw new InvalidSearchRequestException("The limit must be between 1 and " + MAX_AVAILABLE_ROOMS);
+        }
+        List<RoomCandidate> freeRooms = new ArrayList<>();
+        List<RoomCandidate> busyRooms = new ArrayList<>();
+        for (RoomCandidate candidate : roomRepository.findAvailabilityCandidates(organizationId, placeType, minPlaces)) {
+            if (reservationIntervalIndex.hasOverlap(candidate.id(), from, to)) {
+                busyRooms.add(candidate);
+            } else {
+                freeRooms.add(candidate);
+            }
+        }
+        List<AvailableRoom> result = new ArrayList<>(freeRooms.stream()
+                .sorted(BEST_FIT)
+                .limit(limit)
+                .map(candidate -> toAvailableRoom(candidate, true, from, to))
+                .toList());
+        if (result.size() < limit) {
+            busyRooms.stream()
+                    .sorted(BEST_FIT)
+                    .map(candidate -> toAvailableRoom(candidate, false, from, to))
+                    .sorted(Comparator.comparing(RoomService::nextFreeStart, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+        }
+        LOGGER.debug("Found {} free and {} busy rooms", freeRooms.size(), busyRooms.size());
+        return result;
+    }
+
+    /**
+     * Finds the bookable rooms of the organization with at least minPlaces places of the given type
+     * that are free from from to to on every one of the days, smallest fitting room first. Capacity
+     * is filtered by a single query and every room and day is checked against the slot bitmaps of
+     * the interval index.
+     */
+    public List<RoomCandidate> findRoomsFreeOnDays(long organizationId, Collection<LocalDate> days, LocalTime from, LocalTime to,
+                                                   Room.PlaceType placeType, int minPlaces) {
+        LOGGER.debug("Searching for rooms of organization {} free between {} and {} on {} days", organizationId, from, to, days.size());
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The availability search period is empty");
+            throw new InvalidSearchRequestException("The search period is invalid! From must be before To");
+        }
+        if (days.isEmpty() || days.size() > MAX_AVAILABILITY_DAYS) {
+            LOGGER.debug("The number of days of the availability search is out of range");
+            throw new InvalidSearchRequestException("The number of days must be between 1 and " + MAX_AVAILABILITY_DAYS);
+        }
+        if (minPlaces < 0) {
+            LOGGER.debug("The availability search asks for a negative number of places");
+            throw new InvalidSearchRequestException("The number of places can't be negative");
+        }
+        Map<Long, RoomCandidate> candidates = roomRepository.findAvailabilityCandidates(organizationId, placeType, minPlaces).stream()
+                .collect(Collectors.toMap(RoomCandidate::id, Function.identity()));
+        List<RoomCandidate> result = reservationIntervalIndex.freeRooms(candidates.keySet(), days, from, to).stream()
+                .map(candidates::get)
+                .sorted(BEST_FIT)
+                .toList();
+        LOGGER.debug("Found {} of {} rooms free on every day", result.size(), candidates.size());
+        return result;
     }
 
-    public Room getRoomById(Long id) {
-        LOGGER.info("Searching for room with id {}", id);
-        if (roomRepository.existsById(id)) {
-            LOGGER.info("The room with id {} was found", id);
-            return roomRepository.findById(id).get();
-        } else {
+    private AvailableRoom toAvailableRoom(RoomCandidate candidate, boolean available, LocalDateTime from, LocalDateTime to) {
+        List<FreeSlot> freeSlots = reservationIntervalIndex.freeSlots(candidate.id(), from, from.plus(AVAILABILITY_HORIZON),
+                Duration.between(from, to), FREE_SLOTS_PER_ROOM);
+        return new AvailableRoom(candidate.id(), candidate.name(), candidate.identifier(), candidate.level(),
+                candidate.places(), available, freeSlots);
+    }
+
+    private static LocalDateTime nextFreeStart(AvailableRoom room) {
+        return room.freeSlots().isEmpty() ? null : room.freeSlots().get(0).start();
+    }
+
+    public RoomDetails getRoomById(Long id) {
+        LOGGER.debug("Searching for room with id {}", id);
+        List<RoomDetails> rooms = RoomDetailsAssembler.assemble(roomRepository.findRoomPlaceRowsByIdIn(List.of(id)),
+                reservationRepository::findViewsByRoomIdIn);
+        if (rooms.isEmpty()) {
+            LOGGER.debug("The room with id {} not found", id);
+            throw new ObjectNotFoundException("The room with inserted id doesn't exist");
+        }
+        LOGGER.debug("The room with id {} was found", id);
+        return rooms.get(0);
+    }
+
+    /**
+     * Version of the GET /rooms response. Changes with every write to a room, its places or its
+     * reservations, and is computed from the id and version columns only.
+     */
+    public String getRoomsETag() {
+        return Fingerprint.etag(roomRepository.fingerprint(), reservationRepository.fingerprint());
+    }
+
+    public String getRoomETag(long id) {
+        Fingerprint room = roomRepository.fingerprintById(id);
+        if (room.rows() == 0) {
             LOGGER.debug("The room with id {} not found", id);
             throw new ObjectNotFoundException("The room with inserted id doesn't exist");
         }
+        return Fingerprint.etag(room.versionSum(), room, reservationRepository.fingerprintByRoomId(id));
     }
 
     public void addRoom(Room room) {
-        LOGGER.info("Room adding");
+        LOGGER.debug("Room adding");
         long organizationId = room.getOrganizationId();
-        if (roomRepository.existsById(room.getId())){
+        if (room.getId() != 0 && roomRepository.existsById(room.getId())){
             LOGGER.debug("The room with inserted id already exists");
             throw new ObjectAlreadyExistsException("The Room id already exists!");
         }
@@ -55,40 +229,46 @@ public class RoomService {
             LOGGER.debug("The room with inserted identifier already exists");
             throw new ObjectAlreadyExistsException("The Room identifier already exists!");
         }
-        if (!organizationRepository.existsById(organizationId)) {
-            LOGGER.debug("There is no room with inserted id");
-            throw new ObjectNotFoundException("The Organization with inserted id doesn't exist!");
-        }
-        LOGGER.info("Room setting");
-        room.setOrganization(organizationService.getOrganizationById(organizationId));
+        Organization organization = findOrganization(organizationId);
+        room.setOrganization(organization);
         roomRepository.save(room);
-        LOGGER.info("The room was created");
+        secondLevelCache.evictOrganizationRooms(organizationId);
+        LOGGER.debug("The room was created");
     }
 
+    /**
+     * Deletes the room with its reservations under the room lock and the row lock of the room, like
+     * any other reservation write, so a booking of the room waits for the delete and then fails.
+     */
     public void removeRoomById(Long id) {
-        LOGGER.info("Room deleting");
-        if (roomRepository.existsById(id)) {
-            LOGGER.info("The room with id {} was found", id);
-            roomRepository.deleteById(id);
-            LOGGER.info("The room was deleted");
-        } else {
-            LOGGER.debug("The room with id {} not found", id);
-            throw new ObjectNotFoundException("The Room with inserted id doesn't exist");
-        }
+        LOGGER.debug("Room deleting");
+        roomLockManager.runWithLock(id, () -> transactionTemplate.executeWithoutResult(status -> {
+            Room room = roomRepository.findByIdForUpdate(id).orElseThrow(() -> {
+                LOGGER.debug("The room with id {} not found", id);
+                return new ObjectNotFoundException("The Room with inserted id doesn't exist");
+            });
+            LOGGER.debug("The room with id {} was found", id);
+            Long organizationId = room.getOrganization() == null ? null : room.getOrganization().getId();
+            roomRepository.delete(room);
+            reservationIntervalIndex.removeRoom(id);
+            secondLevelCache.evictOrganizationRooms(organizationId);
+        }));
+        changeFeed.publish(ChangeEvent.roomDeleted(id));
+        LOGGER.debug("The room was deleted");
     }
 
     //Entity To DTO Conversion for a Spring REST API
-    public void updateRoomById(long id, Room room) {
-        LOGGER.info("Room updating");
+    public void updateRoomById(long id, Room room, Long version) {
+        LOGGER.debug("Room updating");
         long organizationId = room.getOrganizationId();
-        if (!roomRepository.existsById(id)) {
+        Room existingRoom = roomRepository.findById(id).orElseThrow(() -> {
             LOGGER.debug("The room with id {} not found", id);
-            throw new ObjectNotFoundException("The Room with inserted id doesn't exist");
-        }
-        if (!organizationRepository.existsById(organizationId)) {
-            LOGGER.debug("The organization with id {} not found", organizationId);
-            throw new ObjectNotFoundException("The Organization with inserted id doesn't exist!");
+            return new ObjectNotFoundException("The Room with inserted id doesn't exist");
+        });
+        if (version != null && existingRoom.getVersion() != version) {
+            throw roomVersionConflict(id, version);
         }
+        Organization organization = findOrganization(organizationId);
         if (roomRepository.existsByNameAndIdNot(room.getName(), id)){
             LOGGER.debug("The room with inserted name already exists");
             throw new ObjectAlreadyExistsException("The Room name already exists!");
@@ -97,10 +277,34 @@ public class RoomService {
             LOGGER.debug("The room with inserted identifier already exists");
             throw new ObjectAlreadyExistsException("The Room identifier already exists!");
         }
-        LOGGER.info("Setting updated fields");
-        room.setOrganization(organizationService.getOrganizationById(organizationId));
-        room.setId(id);
-        roomRepository.save(room);
-        LOGGER.info("The room was updated");
+        boolean wasAvailable = existingRoom.isAvailability();
+        existingRoom.setName(room.getName());
+        existingRoom.setIdentifier(room.getIdentifier());
+        existingRoom.setLevel(room.getLevel());
+        existingRoom.setAvailability(room.isAvailability());
+        existingRoom.setPlaces(room.getPlaces());
+        existingRoom.setOrganization(organization);
+        try {
+            roomRepository.save(existingRoom);
+        } catch (OptimisticLockingFailureException e) {
+            throw roomVersionConflict(id, existingRoom.getVersion());
+        }
+        secondLevelCache.evictAllOrganizationRooms();
+        if (wasAvailable != room.isAvailability()) {
+            changeFeed.publish(ChangeEvent.roomAvailabilityChanged(id, room.isAvailability()));
         }
+        LOGGER.debug("The room was updated");
+        }
+
+    private VersionConflictException roomVersionConflict(long id, long version) {
+        LOGGER.debug("The room with id {} was changed since version {}", id, version);
+        return new VersionConflictException("The room was changed in the meantime");
+    }
+
+    private Organization findOrganization(long organizationId) {
+        return organizationRepository.findById(organizationId).orElseThrow(() -> {
+            LOGGER.debug("The organization with id {} not found", organizationId);
+            return new ObjectNotFoundException("The Organization with inserted id doesn't exist!");
+        });
+    }
 }
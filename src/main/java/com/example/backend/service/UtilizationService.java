@@ -0,0 +1,129 @@
+package com.example.backend.service;
+
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.dto.DailyUtilization;
+import com.example.backend.dto.HourlyUtilization;
+import com.example.backend.dto.RoomLabel;
+import com.example.backend.dto.RoomUtilization;
+import com.example.backend.dto.UtilizationReport;
+import com.example.backend.exceptions.InvalidSearchRequestException;
+import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Utilization reports read from the hourly booked seconds kept by the interval index, so a report
+ * needs one query for the rooms and no reservation rows at all.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class UtilizationService {
+
+    static final int MAX_REPORT_DAYS = 366;
+    static final int PEAK_HOURS = 3;
+    private static final int HOURS_PER_DAY = 24;
+    private static final double SECONDS_PER_HOUR = 3600;
+
+    Logger LOGGER = LoggerFactory.getLogger(UtilizationService.class);
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    public UtilizationReport getRoomUtilization(long roomId, LocalDate from, LocalDate to) {
+        LOGGER.debug("Reporting utilization of room {} from {} to {}", roomId, from, to);
+        checkPeriod(from, to);
+        RoomLabel room = roomRepository.findLabelById(roomId).orElseThrow(() -> {
+            LOGGER.debug("The room with id {} not found", roomId);
+            return new ObjectNotFoundException("The room with inserted id doesn't exist");
+        });
+        return report(List.of(room), from, to);
+    }
+
+    public UtilizationReport getOrganizationUtilization(long organizationId, LocalDate from, LocalDate to) {
+        LOGGER.debug("Reporting utilization of organization {} from {} to {}", organizationId, from, to);
+        checkPeriod(from, to);
+        List<RoomLabel> rooms = roomRepository.findLabelsByOrganizationId(organizationId);
+        if (rooms.isEmpty() && !organizationRepository.existsById(organizationId)) {
+            LOGGER.debug("The organization with id {} not found", organizationId);
+            throw new ObjectNotFoundException("There is no organization with inserted id");
+        }
+        return report(rooms, from, to);
+    }
+
+    private void checkPeriod(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            LOGGER.debug("The utilization report period is empty");
+            throw new InvalidSearchRequestException("The report period is invalid! From must be before To");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_REPORT_DAYS) {
+            LOGGER.debug("The utilization report period is too long");
+            throw new InvalidSearchRequestException("The report period can't be longer than " + MAX_REPORT_DAYS + " days");
+        }
+    }
+
+    private UtilizationReport report(List<RoomLabel> rooms, LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to);
+        long[] bookedSecondsPerDay = new long[days];
+        long[] bookedSecondsPerHour = new long[HOURS_PER_DAY];
+        List<RoomUtilization> roomUtilizations = new ArrayList<>(rooms.size());
+        for (RoomLabel room : rooms) {
+            long[][] bookedSeconds = reservationIntervalIndex.bookedSeconds(room.id(), from, to);
+            long roomBookedSeconds = 0;
+            for (int day = 0; day < days; day++) {
+                for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                    bookedSecondsPerDay[day] += bookedSeconds[day][hour];
+                    bookedSecondsPerHour[hour] += bookedSeconds[day][hour];
+                    roomBookedSeconds += bookedSeconds[day][hour];
+                }
+            }
+            roomUtilizations.add(new RoomUtilization(room.id(), room.name(), room.identifier(),
+                    roomBookedSeconds / SECONDS_PER_HOUR, utilization(roomBookedSeconds, 1, days)));
+        }
+        List<DailyUtilization> dailyUtilizations = IntStream.range(0, days)
+                .mapToObj(day -> new DailyUtilization(from.plusDays(day), bookedSecondsPerDay[day] / SECONDS_PER_HOUR,
+                        utilization(bookedSecondsPerDay[day], rooms.size(), 1)))
+                .toList();
+        List<HourlyUtilization> peakHours = IntStream.range(0, HOURS_PER_DAY)
+                .filter(hour -> bookedSecondsPerHour[hour] > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer hour) -> bookedSecondsPerHour[hour]).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(PEAK_HOURS)
+                .map(hour -> new HourlyUtilization(hour, bookedSecondsPerHour[hour] / SECONDS_PER_HOUR))
+                .toList();
+        long bookedSeconds = Arrays.stream(bookedSecondsPerDay).sum();
+        List<Long> idleRoomIds = roomUtilizations.stream()
+                .filter(room -> room.bookedHours() == 0)
+                .map(RoomUtilization::id)
+                .toList();
+        roomUtilizations.sort(Comparator.comparingDouble(RoomUtilization::utilization).reversed()
+                .thenComparingLong(RoomUtilization::id));
+        LOGGER.debug("Reported {} booked hours in {} rooms", bookedSeconds / SECONDS_PER_HOUR, rooms.size());
+        return new UtilizationReport(from, to, bookedSeconds / SECONDS_PER_HOUR, utilization(bookedSeconds, rooms.size(), days),
+                dailyUtilizations, peakHours, roomUtilizations, idleRoomIds);
+    }
+
+    private static double utilization(long bookedSeconds, int rooms, int days) {
+        return rooms == 0 ? 0 : bookedSeconds / (rooms * days * HOURS_PER_DAY * SECONDS_PER_HOUR);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.backend.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void requestOverTheLimitShouldBeRejected() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, Duration.ofMillis(10), meterRegistry);
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                limiter.doFilter(new MockHttpServletRequest("GET", "/rooms"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            admitted.countDown();
+                            await(finish);
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        limiter.doFilter(new MockHttpServletRequest("GET", "/rooms"), rejected, new MockFilterChain());
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(AdmissionLimiter.REJECTED_MESSAGE, rejected.getContentAsString());
+        assertEquals(1, meterRegistry.get("backend.admission.rejected").counter().count());
+        assertEquals(1, limiter.getActiveRequests());
+        finish.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getActiveRequests());
+    }
+
+    @Test
+    void permitShouldBeReleasedWhenRequestFails() {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, Duration.ZERO, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> limiter.doFilter(new MockHttpServletRequest("GET", "/rooms"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException();
+                }));
+
+        assertEquals(0, limiter.getActiveRequests());
+    }
+
+    @Test
+    void limitShouldBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionLimiter(0, Duration.ZERO, meterRegistry));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Organization;
+import com.example.backend.model.Reservation;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import com.example.backend.service.ReservationService;
+import com.example.backend.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ChangeFeedEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    private long organizationId;
+    private long roomId;
+
+    @BeforeEach
+    void onInit() throws Exception {
+        Organization organization = new Organization();
+        organization.setName("Watched");
+        organizationId = organizationRepository.save(organization).getId();
+        mockMvc.perform(post("/rooms").contentType(MediaType.APPLICATION_JSON).content(roomJson(true)))
+                .andExpect(status().isOk());
+        roomId = roomRepository.findAll().get(0).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void subscriberShouldReceiveCommittedChangesOfItsRoom() throws Exception {
+        MockHttpServletResponse roomFeed = subscribe("/changes?roomId=" + roomId);
+        MockHttpServletResponse otherRoomFeed = subscribe("/changes?roomId=" + (roomId + 1));
+
+        Reservation reservation = reservation();
+        reservationService.addReservation(reservation);
+        mockMvc.perform(put("/rooms/" + roomId).contentType(MediaType.APPLICATION_JSON).content(roomJson(false)))
+                .andExpect(status().isOk());
+
+        // The event line and its data are written separately, so wait for the data of the last event
+        awaitContent(roomFeed, "\"availability\":false");
+        String events = roomFeed.getContentAsString();
+        assertTrue(roomFeed.getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        assertTrue(events.indexOf("event:RESERVATION_CREATED") < events.indexOf("event:ROOM_AVAILABILITY_CHANGED"));
+        assertTrue(events.contains("\"reservationId\":" + reservation.getId()));
+        assertTrue(events.contains("\"availability\":false"));
+        assertFalse(otherRoomFeed.getContentAsString().contains("event:"));
+    }
+
+    private MockHttpServletResponse subscribe(String path) throws Exception {
+        return mockMvc.perform(get(path).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(response.getContentAsString().contains(expected), response.getContentAsString());
+    }
+
+    private Reservation reservation() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier("W1");
+        reservation.setRoomId(roomId);
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(start.plusHours(1));
+        return reservation;
+    }
+
+    private String roomJson(boolean availability) {
+        return "{\"name\": \"Watched Room\", \"identifier\": \"WR1\", \"level\": 1, \"availability\": " + availability + ", " +
+                "\"places\": {\"SITTING\": 4}, \"organizationId\": " + organizationId + "}";
+    }
+}
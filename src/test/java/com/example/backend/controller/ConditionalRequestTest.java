@@ -0,0 +1,205 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Organization;
+import com.example.backend.model.Reservation;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import com.example.backend.service.ReservationService;
+import com.example.backend.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static com.example.backend.support.QueryCounter.assertQueryCountAtMost;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRequestTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    private long organizationId;
+    private long roomId;
+
+    @BeforeEach
+    void onInit() throws Exception {
+        Organization organization = new Organization();
+        organization.setName("Polled");
+        organizationId = organizationRepository.save(organization).getId();
+        mockMvc.perform(post("/rooms").contentType(MediaType.APPLICATION_JSON).content(roomJson(4)))
+                .andExpect(status().isOk());
+        roomId = roomRepository.findAll().get(0).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedRoomsShouldReturnNotModifiedWithoutLoadingRows() throws Exception {
+        String etag = etagOf("/rooms");
+
+        assertQueryCountAtMost(2, () -> {
+            try {
+                mockMvc.perform(get("/rooms").header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, etag))
+                        .andExpect(content().string(""));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Test
+    void newReservationShouldChangeRoomETags() throws Exception {
+        String roomsEtag = etagOf("/rooms");
+        String roomEtag = etagOf("/rooms/" + roomId);
+        String organizationEtag = etagOf("/organizations/" + organizationId);
+
+        reservationService.addReservation(reservation());
+
+        assertNotEquals(roomsEtag, etagIfNoneMatch("/rooms", roomsEtag));
+        assertNotEquals(roomEtag, etagIfNoneMatch("/rooms/" + roomId, roomEtag));
+        assertNotEquals(organizationEtag, etagIfNoneMatch("/organizations/" + organizationId, organizationEtag));
+    }
+
+    @Test
+    void updatedPlacesShouldChangeRoomETag() throws Exception {
+        String etag = etagOf("/rooms/" + roomId);
+
+        mockMvc.perform(put("/rooms/" + roomId).contentType(MediaType.APPLICATION_JSON).content(roomJson(6)))
+                .andExpect(status().isOk());
+
+        assertNotEquals(etag, etagIfNoneMatch("/rooms/" + roomId, etag));
+    }
+
+    @Test
+    void renamedOrganizationShouldChangeOrganizationsETag() throws Exception {
+        String etag = etagOf("/organizations");
+
+        mockMvc.perform(put("/organizations/" + organizationId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isOk());
+
+        assertNotEquals(etag, etagIfNoneMatch("/organizations", etag));
+    }
+
+    @Test
+    void roomUpdateWithStaleIfMatchShouldReturnConflict() throws Exception {
+        String etag = etagOf("/rooms/" + roomId);
+
+        mockMvc.perform(put("/rooms/" + roomId).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(roomJson(6)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/rooms/" + roomId).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(roomJson(8)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void organizationUpdateWithStaleIfMatchShouldReturnConflict() throws Exception {
+        String etag = etagOf("/organizations/" + organizationId);
+
+        mockMvc.perform(put("/organizations/" + organizationId).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"First\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/organizations/" + organizationId).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Second\"}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/organizations/" + organizationId).header(HttpHeaders.IF_MATCH, "\"unknown\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Third\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reservationUpdateWithStaleIfMatchShouldReturnConflict() throws Exception {
+        Reservation reservation = reservation();
+        reservationService.addReservation(reservation);
+        String etag = etagOf("/reservations/" + reservation.getId());
+        String body = "{\"identifier\": \"P2\", \"roomId\": " + roomId + ", " +
+                "\"startReservationDateTime\": \"" + reservation.getStartReservationDateTime().plusHours(2) + "\", " +
+                "\"endReservationDateTime\": \"" + reservation.getEndReservationDateTime().plusHours(2) + "\"}";
+
+        mockMvc.perform(put("/reservations/" + reservation.getId()).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/reservations/" + reservation.getId()).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void unknownRoomShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/rooms/" + (roomId + 1000)))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private String etagIfNoneMatch(String path, String etag) throws Exception {
+        return mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private Reservation reservation() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier("P1");
+        reservation.setRoomId(roomId);
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(start.plusHours(1));
+        return reservation;
+    }
+
+    private String roomJson(int sittingPlaces) {
+        return "{\"name\": \"Polled Room\", \"identifier\": \"PR1\", \"level\": 1, \"availability\": true, " +
+                "\"places\": {\"SITTING\": " + sittingPlaces + "}, \"organizationId\": " + organizationId + "}";
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.backend.controller;
+
+import com.example.backend.idempotency.IdempotencyKeyStore;
+import com.example.backend.model.IdempotencyKey;
+import com.example.backend.model.Organization;
+import com.example.backend.repository.IdempotencyKeyRepository;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import com.example.backend.service.ReservationService;
+import com.example.backend.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.example.backend.support.QueryCounter.assertQueryCountAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentReservationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    private long roomId;
+    private String idempotencyKey;
+
+    @BeforeEach
+    void onInit() throws Exception {
+        Organization organization = new Organization();
+        organization.setName("Retried");
+        long organizationId = organizationRepository.save(organization).getId();
+        mockMvc.perform(post("/rooms").contentType(MediaType.APPLICATION_JSON).content(
+                        "{\"name\": \"Retried Room\", \"identifier\": \"RR1\", \"level\": 1, \"availability\": true, " +
+                                "\"places\": {\"SITTING\": 4}, \"organizationId\": " + organizationId + "}"))
+                .andExpect(status().isOk());
+        roomId = roomRepository.findAll().get(0).getId();
+        idempotencyKey = UUID.randomUUID().toString();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+        ReflectionTestUtils.setField(idempotencyKeyStore, "persistent", false);
+    }
+
+    @Test
+    void retryWithTheSameKeyShouldReturnTheFirstReservationWithoutQueries() throws Exception {
+        String body = reservationJson("K1", 10);
+        String location = addReservation(idempotencyKey, body)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyKeyStore.REPLAYED_HEADER, "false"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.LOCATION);
+
+        assertQueryCountAtMost(0, () -> {
+            try {
+                addReservation(idempotencyKey, body)
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.LOCATION, location))
+                        .andExpect(header().string(IdempotencyKeyStore.REPLAYED_HEADER, "true"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(1, reservationRepository.count());
+        assertEquals("/reservations/" + reservationRepository.findAll().get(0).getId(), location);
+    }
+
+    @Test
+    void keyReusedWithAnotherReservationShouldBeRejected() throws Exception {
+        addReservation(idempotencyKey, reservationJson("K1", 10)).andExpect(status().isOk());
+
+        addReservation(idempotencyKey, reservationJson("K2", 12)).andExpect(status().isUnprocessableEntity());
+        assertEquals(1, reservationRepository.count());
+    }
+
+    @Test
+    void failedRequestShouldNotBeRecorded() throws Exception {
+        String body = reservationJson("K1", 10);
+        addReservation(UUID.randomUUID().toString(), body).andExpect(status().isOk());
+
+        addReservation(idempotencyKey, body).andExpect(status().isBadRequest());
+        reservationService.removeReservationById(reservationRepository.findAll().get(0).getId());
+        addReservation(idempotencyKey, body)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyKeyStore.REPLAYED_HEADER, "false"));
+    }
+
+    @Test
+    void requestWithoutKeyShouldNotBeDeduplicated() throws Exception {
+        mockMvc.perform(post("/reservations").contentType(MediaType.APPLICATION_JSON).content(reservationJson("K1", 10)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyKeyStore.REPLAYED_HEADER));
+        mockMvc.perform(post("/reservations").contentType(MediaType.APPLICATION_JSON).content(reservationJson("K1", 10)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void expiredPersistentKeyShouldBeReusable() throws Exception {
+        ReflectionTestUtils.setField(idempotencyKeyStore, "persistent", true);
+        idempotencyKeyRepository.save(new IdempotencyKey(idempotencyKey, "other", 1, LocalDateTime.now().minusMinutes(1)));
+
+        addReservation(idempotencyKey, reservationJson("K1", 10))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyKeyStore.REPLAYED_HEADER, "false"));
+
+        IdempotencyKey stored = idempotencyKeyRepository.findById(idempotencyKey).orElseThrow();
+        assertEquals(reservationRepository.findAll().get(0).getId(), stored.getReservationId());
+    }
+
+    private ResultActions addReservation(String key, String body) throws Exception {
+        return mockMvc.perform(post("/reservations").header(IdempotencyKeyStore.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private String reservationJson(String identifier, int hour) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(hour).withMinute(0).withSecond(0).withNano(0);
+        return "{\"identifier\": \"" + identifier + "\", \"roomId\": " + roomId + ", " +
+                "\"startReservationDateTime\": \"" + start + "\", " +
+                "\"endReservationDateTime\": \"" + start.plusHours(1) + "\"}";
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Reservation;
+import com.example.backend.model.Room;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import com.example.backend.service.ReservationService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListEndpointsTest {
+    private static final int RESERVATIONS = 5;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    private long roomId;
+
+    @BeforeEach
+    void onInit() {
+        Room room = roomRepository.save(new Room.Builder()
+                .withName("List Room")
+                .withIdentifier("LR1")
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(Map.of(Room.PlaceType.SITTING, 2))
+                .build());
+        roomId = room.getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setIdentifier("L" + i);
+            reservation.setRoomId(room.getId());
+            reservation.setStartReservationDateTime(start.plusHours(2L * (RESERVATIONS - i)));
+            reservation.setEndReservationDateTime(start.plusHours(2L * (RESERVATIONS - i) + 1));
+            reservationService.addReservation(reservation);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void reservationsPagesShouldFollowCursorUntilLastPage() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/reservations").param("size", "3").param("order", "start"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].identifier").value("L4"))
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/reservations").param("size", "3").param("order", "start").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].identifier").value("L0"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void roomsShouldCarryPlacesAndReservationsWithoutOrganization() throws Exception {
+        mockMvc.perform(get("/rooms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].places.SITTING").value(2))
+                .andExpect(jsonPath("$[0].organizationId").doesNotExist())
+                .andExpect(jsonPath("$[0].reservations.length()").value(RESERVATIONS))
+                .andExpect(jsonPath("$[0].reservations[0].roomId").value(roomId));
+    }
+
+    @Test
+    void invalidPageSizeShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/rooms").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reservationsStreamShouldWriteOneJsonLinePerReservation() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reservations/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(RESERVATIONS, body.lines().filter(line -> line.startsWith("{\"id\":")).count());
+    }
+
+    @Test
+    void reactiveReservationsShouldStreamOneJsonLinePerReservation() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive/reservations").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(RESERVATIONS, body.lines().filter(line -> line.contains("\"roomId\":" + roomId)).count());
+    }
+
+    @Test
+    void reactiveRoomsShouldFoldPlacesIntoTheRoom() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive/rooms").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].identifier").value("LR1"))
+                .andExpect(jsonPath("$[0].places.SITTING").value(2));
+    }
+}
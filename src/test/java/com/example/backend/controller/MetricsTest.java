@@ -0,0 +1,64 @@
+package com.example.backend.controller;
+
+import com.example.backend.config.MetricsConfiguration;
+import com.example.backend.service.ReservationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void rejectedRequestShouldBeTimedAndCounted() throws Exception {
+        double notFound = exceptionCount("ObjectNotFoundException");
+
+        mockMvc.perform(get("/reservations/{id}", Integer.MAX_VALUE)).andExpect(status().isNotFound());
+
+        Timer serviceTimer = meterRegistry.find(MetricsConfiguration.SERVICE_TIMER)
+                .tag("class", ReservationService.class.getName())
+                .tag("method", "getReservationETag")
+                .tag("exception", "ObjectNotFoundException")
+                .timer();
+        assertNotNull(serviceTimer);
+        assertTrue(serviceTimer.count() > 0);
+        Timer repositoryTimer = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "ReservationRepository")
+                .tag("method", "fingerprintById")
+                .timer();
+        assertNotNull(repositoryTimer);
+        assertEquals(notFound + 1, exceptionCount("ObjectNotFoundException"));
+    }
+
+    @Test
+    void roomLocksShouldBePublished() {
+        assertNotNull(meterRegistry.find("room.locks.acquisitions").functionCounter());
+        assertNotNull(meterRegistry.find("room.locks.wait").functionCounter());
+        assertTrue(meterRegistry.get("room.locks.stripes").gauge().value() > 0);
+    }
+
+    private double exceptionCount(String exception) {
+        Counter counter = meterRegistry.find(MetricsConfiguration.EXCEPTION_COUNTER).tag("exception", exception).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
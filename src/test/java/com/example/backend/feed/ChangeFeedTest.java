@@ -0,0 +1,159 @@
+package com.example.backend.feed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeFeedTest {
+
+    private ChangeFeed changeFeed;
+
+    @AfterEach
+    void shutdown() {
+        if (changeFeed != null) {
+            changeFeed.shutdown();
+        }
+    }
+
+    @Test
+    void broadcastBufferShouldRoundCapacityAndForgetOverwrittenValues() {
+        BroadcastBuffer<String> buffer = new BroadcastBuffer<>(3);
+        for (int i = 0; i < 5; i++) {
+            buffer.publish("value " + i);
+        }
+
+        assertEquals(4, buffer.capacity());
+        assertNull(buffer.get(0));
+        assertTrue(buffer.isOverwritten(0));
+        assertEquals("value 1", buffer.get(1));
+        assertEquals("value 4", buffer.get(4));
+        assertNull(buffer.get(5));
+    }
+
+    @Test
+    void subscriberShouldReceiveChangesOfItsRoomInOrder() throws InterruptedException {
+        changeFeed = new ChangeFeed(16, 2);
+        RecordingEmitter allRooms = new RecordingEmitter();
+        RecordingEmitter roomTwo = new RecordingEmitter();
+        changeFeed.subscribe(allRooms, null, null);
+        changeFeed.subscribe(roomTwo, 2L, null);
+
+        changeFeed.publish(reservationCreated(1, 10));
+        changeFeed.publish(reservationCreated(2, 11));
+        changeFeed.publish(ChangeEvent.roomAvailabilityChanged(2, false));
+
+        assertEquals(List.of(reservationCreated(1, 10), reservationCreated(2, 11),
+                ChangeEvent.roomAvailabilityChanged(2, false)), allRooms.take(3));
+        assertEquals(List.of(reservationCreated(2, 11), ChangeEvent.roomAvailabilityChanged(2, false)),
+                roomTwo.take(2));
+    }
+
+    @Test
+    void slowSubscriberShouldBeDroppedWithoutHoldingBackOthers() throws InterruptedException {
+        changeFeed = new ChangeFeed(4, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        changeFeed.subscribe(slow, null, null);
+        changeFeed.subscribe(fast, null, null);
+
+        for (int i = 0; i < 10; i++) {
+            ChangeEvent event = reservationCreated(1, i);
+            changeFeed.publish(event);
+            assertEquals(List.of(event), fast.take(1));
+        }
+        assertEquals(1, changeFeed.getDroppedCount());
+        assertEquals(1, changeFeed.getSubscriberCount());
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, changeFeed.getDroppedCount());
+        assertEquals(1, changeFeed.getSubscriberCount());
+        assertEquals(10, changeFeed.getPublishedCount());
+    }
+
+    @Test
+    void subscriberShouldResumeAfterLastEventIdOrBeResetWhenItIsNoLongerBuffered() throws InterruptedException {
+        changeFeed = new ChangeFeed(4, 2);
+        for (int i = 0; i < 10; i++) {
+            changeFeed.publish(reservationCreated(1, i));
+        }
+        RecordingEmitter resumed = new RecordingEmitter();
+        RecordingEmitter reset = new RecordingEmitter();
+        changeFeed.subscribe(resumed, null, 7L);
+        changeFeed.subscribe(reset, null, 2L);
+        changeFeed.publish(reservationCreated(1, 10));
+
+        assertEquals(List.of(reservationCreated(1, 8), reservationCreated(1, 9), reservationCreated(1, 10)),
+                resumed.take(3));
+        assertEquals(List.of(ChangeFeed.RESET_EVENT, reservationCreated(1, 10)), reset.take(2));
+    }
+
+    private static ChangeEvent reservationCreated(long roomId, long reservationId) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        return ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_CREATED, roomId, reservationId, start, start.plusHours(1));
+    }
+
+    /**
+     * Records the data of every sent event, optionally waiting for a latch before each send like a
+     * client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Object> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String text) || text.equals(ChangeFeed.RESET_EVENT))
+                    .forEach(sent::add);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+        List<Object> take(int count) throws InterruptedException {
+            List<Object> events = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Object event = sent.poll(5, TimeUnit.SECONDS);
+                if (event == null) {
+                    break;
+                }
+                events.add(event);
+            }
+            return events;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.idempotency;
+
+import com.example.backend.exceptions.IdempotencyKeyInProgressException;
+import com.example.backend.exceptions.IdempotencyKeyReusedException;
+import com.example.backend.exceptions.InvalidIdempotencyKeyException;
+import com.example.backend.model.IdempotencyKey;
+import com.example.backend.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyKeyStoreTest {
+
+    private IdempotencyKeyStore store;
+
+    @BeforeEach
+    void onInit() {
+        store = new IdempotencyKeyStore();
+        store.ttl = Duration.ofHours(1);
+        store.maxKeys = 2;
+        store.idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        store.initialize();
+    }
+
+    @Test
+    void recordedKeyShouldBeReplayed() {
+        assertNull(store.claim("k1", "hash"));
+        store.record("k1", "hash", 7);
+        store.release("k1");
+
+        assertEquals(7L, store.claim("k1", "hash"));
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.claim("k1", "other"));
+    }
+
+    @Test
+    void claimedKeyShouldBeRejectedUntilReleased() {
+        assertNull(store.claim("k1", "hash"));
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> store.claim("k1", "hash"));
+
+        store.release("k1");
+        assertNull(store.claim("k1", "hash"));
+    }
+
+    @Test
+    void leastRecentlyUsedAndExpiredKeysShouldBeDropped() {
+        store.record("k1", "hash", 1);
+        store.record("k2", "hash", 2);
+        store.claim("k1", "hash");
+        store.record("k3", "hash", 3);
+
+        assertEquals(1L, store.claim("k1", "hash"));
+        assertNull(store.claim("k2", "hash"));
+
+        store.ttl = Duration.ZERO;
+        store.record("k4", "hash", 4);
+        assertNull(store.claim("k4", "hash"));
+    }
+
+    @Test
+    void persistentKeyShouldBeReadWhenNotInMemory() {
+        store.persistent = true;
+        when(store.idempotencyKeyRepository.findUnexpired(eq("k1"), any()))
+                .thenReturn(Optional.of(new IdempotencyKey("k1", "hash", 5, LocalDateTime.now().plusHours(1))));
+
+        assertEquals(5L, store.claim("k1", "hash"));
+        assertEquals(5L, store.claim("k1", "hash"));
+        verify(store.idempotencyKeyRepository).findUnexpired(eq("k1"), any());
+
+        store.record("k2", "hash", 6);
+        InOrder inOrder = inOrder(store.idempotencyKeyRepository);
+        inOrder.verify(store.idempotencyKeyRepository).deleteIfExpired(eq("k2"), any());
+        inOrder.verify(store.idempotencyKeyRepository).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void blankOrTooLongKeyShouldBeRejected() {
+        assertThrows(InvalidIdempotencyKeyException.class, () -> store.claim(" ", "hash"));
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> store.claim("k".repeat(IdempotencyKeyStore.MAX_KEY_LENGTH + 1), "hash"));
+        verify(store.idempotencyKeyRepository, never()).findUnexpired(any(), any());
+    }
+}
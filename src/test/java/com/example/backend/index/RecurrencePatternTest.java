@@ -0,0 +1,83 @@
+package com.example.backend.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrencePatternTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2053, 12, 15, 0, 0);
+
+    // Weekly on Mondays 9:00-9:30, ten occurrences.
+    private final RecurrencePattern standUp = weekly(1, MONDAY.withHour(9), Duration.ofMinutes(30), 1, 10);
+
+    @ParameterizedTest
+    @CsvSource({"0, 9, 10, true", "7, 9:30, 10, true", "7, 8, 9, true", "63, 9, 9:15, true", "7, 9:31, 10, false",
+            "1, 9, 10, false", "70, 9, 10, false", "-7, 9, 10, false"})
+    public void overlapsShouldFindOccurrenceWithoutExpandingSeries(int day, String start, String end, boolean expected) {
+        assertEquals(expected, standUp.overlaps(at(day, start), at(day, end)));
+    }
+
+    @Test
+    public void occurrencesBetweenShouldOnlyReturnOccurrencesInsidePeriod() {
+        List<Occurrence> occurrences = standUp.occurrencesBetween(at(7, "9:30"), at(21, "9"));
+
+        assertEquals(List.of(at(14, "9")), occurrences.stream().map(Occurrence::start).toList());
+    }
+
+    @Test
+    public void occurrencesBetweenShouldStopAtLastOccurrence() {
+        assertEquals(10, standUp.occurrencesBetween(MONDAY.minusDays(1), MONDAY.plusYears(1)).size());
+    }
+
+    @Test
+    public void firstOccurrenceFromShouldReturnNullAfterLastOccurrence() {
+        assertEquals(at(14, "9"), standUp.firstOccurrenceFrom(at(7, "9:01")).start());
+        assertNull(standUp.firstOccurrenceFrom(at(63, "9:01")));
+    }
+
+    @Test
+    public void seriesOnDifferentWeeksShouldNotOverlap() {
+        RecurrencePattern evenWeeks = weekly(2, MONDAY.withHour(9), Duration.ofHours(1), 2, null);
+        RecurrencePattern oddWeeks = weekly(3, MONDAY.plusWeeks(1).withHour(9), Duration.ofHours(1), 2, null);
+
+        assertFalse(evenWeeks.overlaps(oddWeeks));
+        assertFalse(oddWeeks.overlaps(evenWeeks));
+    }
+
+    @Test
+    public void seriesWithDifferentStepsShouldOverlapWhenTheyMeet() {
+        RecurrencePattern everyThreeWeeks = weekly(2, MONDAY.plusWeeks(1).withHour(9).withMinute(15), Duration.ofHours(1), 3, null);
+
+        assertTrue(standUp.overlaps(everyThreeWeeks));
+        assertTrue(everyThreeWeeks.overlaps(standUp));
+    }
+
+    @Test
+    public void seriesStartingAfterOtherEndsShouldNotOverlap() {
+        RecurrencePattern later = weekly(2, MONDAY.plusWeeks(10).withHour(9), Duration.ofHours(1), 1, null);
+
+        assertFalse(standUp.overlaps(later));
+        assertFalse(later.overlaps(standUp));
+    }
+
+    private static RecurrencePattern weekly(long id, LocalDateTime firstStart, Duration duration, int weeks, Integer count) {
+        Duration step = Duration.ofDays(7L * weeks);
+        LocalDateTime lastStart = count == null ? null : firstStart.plus(step.multipliedBy(count - 1));
+        return new RecurrencePattern(id, 1, firstStart, duration, step, lastStart);
+    }
+
+    private static LocalDateTime at(int day, String time) {
+        String[] parts = time.split(":");
+        int minutes = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        return MONDAY.plusDays(day).withHour(Integer.parseInt(parts[0])).withMinute(minutes);
+    }
+}
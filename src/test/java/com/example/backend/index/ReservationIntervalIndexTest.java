@@ -0,0 +1,242 @@
+package com.example.backend.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationIntervalIndexTest {
+    private static final long ROOM_ID = 1;
+    private static final LocalDateTime DAY = LocalDateTime.of(2053, 12, 18, 0, 0);
+
+    private ReservationIntervalIndex index;
+
+    @BeforeEach
+    void onInit() {
+        index = new ReservationIntervalIndex();
+        index.load(List.of(
+                interval(1, ROOM_ID, 9, 10),
+                interval(2, ROOM_ID, 12, 14),
+                interval(3, 2, 9, 18)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 9, true", "9, 10, true", "10, 11, true", "11, 12, true", "13, 15, true", "8, 20, true",
+            "10:30, 11, false", "14:30, 16, false", "6, 8, false"})
+    public void hasOverlapShouldTreatTouchingReservationsAsOverlapping(String start, String end, boolean expected) {
+        assertEquals(expected, index.hasOverlap(ROOM_ID, at(start), at(end)));
+    }
+
+    @Test
+    public void hasOverlapShouldIgnoreOtherRooms() {
+        assertFalse(index.hasOverlap(3, at("9"), at("18")));
+    }
+
+    @Test
+    public void hasOverlapShouldFindLongReservationStartingLongBefore() {
+        index.put(new ReservationInterval(4, ROOM_ID, DAY.plusDays(1), DAY.plusDays(5)));
+        index.put(new ReservationInterval(5, ROOM_ID, DAY.plusDays(6).withHour(9), DAY.plusDays(6).withHour(10)));
+
+        assertTrue(index.hasOverlap(ROOM_ID, at("16").plusDays(3), at("17").plusDays(3)));
+        assertFalse(index.hasOverlap(ROOM_ID, at("16").plusDays(5), at("17").plusDays(5)));
+    }
+
+    @Test
+    public void hasOverlapExcludingShouldSkipExcludedReservation() {
+        assertFalse(index.hasOverlapExcluding(ROOM_ID, 2, at("12:30"), at("13:30")));
+        assertTrue(index.hasOverlapExcluding(ROOM_ID, 1, at("12:30"), at("13:30")));
+    }
+
+    @Test
+    public void putShouldMoveReservationWhenItIsUpdated() {
+        index.put(interval(2, 2, 20, 21));
+
+        assertFalse(index.hasOverlap(ROOM_ID, at("12:30"), at("13:30")));
+        assertTrue(index.hasOverlap(2, at("20:30"), at("20:45")));
+        assertEquals(1, index.size(ROOM_ID));
+    }
+
+    @Test
+    public void removeShouldFreeReservedPeriod() {
+        index.remove(1);
+
+        assertFalse(index.hasOverlap(ROOM_ID, at("9"), at("10")));
+    }
+
+    @Test
+    public void removeRoomShouldDropAllItsReservations() {
+        index.removeRoom(ROOM_ID);
+
+        assertEquals(0, index.size(ROOM_ID));
+        assertFalse(index.hasOverlap(ROOM_ID, at("9"), at("14")));
+        assertTrue(index.hasOverlap(2, at("9"), at("14")));
+    }
+
+    @Test
+    public void removeRoomShouldBeRevertedOnRollback() {
+        index.putSeries(dailySeries(5, ROOM_ID, 16, Duration.ofHours(1)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.removeRoom(ROOM_ID);
+            assertEquals(0, index.size(ROOM_ID));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(2, index.size(ROOM_ID));
+        assertTrue(index.hasOverlap(ROOM_ID, at("12:30"), at("13:30")));
+        assertTrue(index.hasOverlap(ROOM_ID, DAY.plusDays(3).withHour(16), DAY.plusDays(3).withHour(16).withMinute(30)));
+        assertFalse(index.hasOverlapExcluding(ROOM_ID, 2, at("12:30"), at("13:30")));
+    }
+
+    @Test
+    public void freeSlotsShouldReturnGapsBetweenReservations() {
+        List<FreeSlot> slots = index.freeSlots(ROOM_ID, at("8"), at("23"), Duration.ofHours(1), 5);
+
+        assertEquals(List.of(new FreeSlot(at("8"), at("9")), new FreeSlot(at("10"), at("12")), new FreeSlot(at("14"), null)), slots);
+    }
+
+    @Test
+    public void freeSlotsShouldSkipGapsShorterThanMinimumLength() {
+        List<FreeSlot> slots = index.freeSlots(ROOM_ID, at("9:30"), at("23"), Duration.ofHours(3), 5);
+
+        assertEquals(List.of(new FreeSlot(at("14"), null)), slots);
+    }
+
+    @Test
+    public void freeSlotsShouldStopAtLimitAndUntil() {
+        assertEquals(List.of(new FreeSlot(at("8"), at("9"))), index.freeSlots(ROOM_ID, at("8"), at("23"), Duration.ofHours(1), 1));
+        assertEquals(List.of(new FreeSlot(at("8"), at("9")), new FreeSlot(at("10"), at("12"))),
+                index.freeSlots(ROOM_ID, at("8"), at("11"), Duration.ofHours(1), 5));
+    }
+
+    @Test
+    public void freeSlotsOfRoomWithoutReservationsShouldBeOpenEnded() {
+        assertEquals(List.of(new FreeSlot(at("8"), null)), index.freeSlots(3, at("8"), at("23"), Duration.ofHours(1), 5));
+    }
+
+    @Test
+    public void hasOverlapShouldCheckSeriesOfRoom() {
+        index.putSeries(dailySeries(5, ROOM_ID, 16, Duration.ofHours(1)));
+
+        assertTrue(index.hasOverlap(ROOM_ID, DAY.plusDays(30).withHour(16).withMinute(30), DAY.plusDays(30).withHour(18)));
+        assertFalse(index.hasOverlap(ROOM_ID, DAY.plusDays(30).withHour(17).withMinute(30), DAY.plusDays(30).withHour(18)));
+
+        index.removeSeries(5);
+
+        assertFalse(index.hasOverlap(ROOM_ID, DAY.plusDays(30).withHour(16).withMinute(30), DAY.plusDays(30).withHour(18)));
+    }
+
+    @Test
+    public void hasOverlapOfSeriesShouldCheckReservationsAndOtherSeries() {
+        assertTrue(index.hasOverlap(dailySeries(5, ROOM_ID, 13, Duration.ofMinutes(30))));
+        assertFalse(index.hasOverlap(dailySeries(5, ROOM_ID, 16, Duration.ofHours(1))));
+
+        index.putSeries(dailySeries(5, ROOM_ID, 16, Duration.ofHours(1)));
+
+        assertTrue(index.hasOverlap(dailySeries(6, ROOM_ID, 17, Duration.ofHours(1))));
+    }
+
+    @Test
+    public void freeSlotsShouldSkipSeriesOccurrences() {
+        index.putSeries(dailySeries(5, ROOM_ID, 16, Duration.ofHours(1)));
+
+        List<FreeSlot> slots = index.freeSlots(ROOM_ID, at("15"), at("15").plusDays(1), Duration.ofHours(1), 2);
+
+        assertEquals(List.of(new FreeSlot(at("15"), at("16")), new FreeSlot(at("17"), DAY.plusDays(1).withHour(16))), slots);
+    }
+
+    @Test
+    public void bookedSecondsShouldFollowWritesAndCountSeries() {
+        index.put(new ReservationInterval(4, ROOM_ID, at("22:30"), DAY.plusDays(1).withHour(1)));
+        index.putSeries(dailySeries(5, ROOM_ID, 16, Duration.ofMinutes(90)));
+
+        long[][] booked = index.bookedSeconds(ROOM_ID, DAY.toLocalDate(), DAY.toLocalDate().plusDays(2));
+
+        assertEquals(2, booked.length);
+        assertEquals(3600, booked[0][9]);
+        assertEquals(0, booked[0][11]);
+        assertEquals(7200, booked[0][12] + booked[0][13]);
+        assertEquals(3600 + 1800, booked[0][16] + booked[0][17]);
+        assertEquals(1800, booked[0][22]);
+        assertEquals(3600, booked[1][0]);
+        assertEquals(3600 + 1800, booked[1][16] + booked[1][17]);
+
+        index.remove(4);
+        index.put(interval(2, ROOM_ID, 12, 13));
+
+        booked = index.bookedSeconds(ROOM_ID, DAY.toLocalDate(), DAY.toLocalDate().plusDays(2));
+        assertEquals(0, booked[0][22] + booked[1][0]);
+        assertEquals(3600, booked[0][12] + booked[0][13]);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10:30, 11:45, true", "10:05, 11:55, true", "10:00, 11:00, false", "11:00, 12:00, false", "8:00, 9:10, false"})
+    public void freeRoomsShouldTreatTouchingReservationsAsOverlapping(String from, String to, boolean expected) {
+        List<Long> free = index.freeRooms(List.of(ROOM_ID, 3L), List.of(DAY.toLocalDate()), time(from), time(to));
+
+        assertEquals(expected ? List.of(ROOM_ID, 3L) : List.of(3L), free);
+    }
+
+    @Test
+    public void freeRoomsShouldRequireEveryDayAndSkipSeriesOccurrences() {
+        List<LocalDate> days = List.of(DAY.toLocalDate(), DAY.toLocalDate().plusDays(7));
+        assertEquals(List.of(ROOM_ID, 3L), index.freeRooms(List.of(ROOM_ID, 2L, 3L), days, time("15:00"), time("16:00")));
+
+        index.put(new ReservationInterval(4, ROOM_ID, DAY.plusDays(7).withHour(15).withMinute(50), DAY.plusDays(7).withHour(17)));
+        index.putSeries(dailySeries(5, 3, 15, Duration.ofMinutes(30)));
+
+        assertEquals(List.of(), index.freeRooms(List.of(ROOM_ID, 2L, 3L), days, time("15:00"), time("16:00")));
+        assertEquals(List.of(ROOM_ID, 2L, 3L), index.freeRooms(List.of(ROOM_ID, 2L, 3L), days, time("18:15"), time("19:00")));
+    }
+
+    @Test
+    public void removeShouldKeepSlotsSharedWithNeighbouringReservations() {
+        index.put(new ReservationInterval(4, ROOM_ID, at("10:20"), at("10:40")));
+        index.put(new ReservationInterval(5, ROOM_ID, at("10:41"), at("11:10")));
+
+        index.remove(5);
+
+        assertTrue(index.hasOverlap(ROOM_ID, at("10:35"), at("10:38")));
+        assertFalse(index.hasOverlap(ROOM_ID, at("10:41"), at("10:44")));
+        assertEquals(List.of(ROOM_ID), index.freeRooms(List.of(ROOM_ID), List.of(DAY.toLocalDate()), time("10:45"), time("11:30")));
+
+        index.remove(4);
+
+        assertEquals(List.of(ROOM_ID), index.freeRooms(List.of(ROOM_ID), List.of(DAY.toLocalDate()), time("10:05"), time("11:55")));
+        assertTrue(index.hasOverlap(ROOM_ID, at("9:50"), at("9:55")));
+    }
+
+    private static RecurrencePattern dailySeries(long id, long roomId, int startHour, Duration duration) {
+        return new RecurrencePattern(id, roomId, DAY.withHour(startHour), duration, Duration.ofDays(1), null);
+    }
+
+    private static ReservationInterval interval(long id, long roomId, int startHour, int endHour) {
+        return new ReservationInterval(id, roomId, DAY.withHour(startHour), DAY.withHour(endHour));
+    }
+
+    private static LocalDateTime at(String time) {
+        String[] parts = time.split(":");
+        int minutes = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        return DAY.withHour(Integer.parseInt(parts[0])).withMinute(minutes);
+    }
+
+    private static LocalTime time(String time) {
+        return LocalTime.parse(time.length() == 4 ? "0" + time : time);
+    }
+}
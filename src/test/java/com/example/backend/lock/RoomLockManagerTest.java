@@ -0,0 +1,130 @@
+package com.example.backend.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomLockManagerTest {
+    private RoomLockManager roomLockManager;
+
+    @BeforeEach
+    void onInit() {
+        roomLockManager = new RoomLockManager(16);
+    }
+
+    @Test
+    public void stripeCountShouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(1, new RoomLockManager(1).getStripeCount());
+        assertEquals(8, new RoomLockManager(5).getStripeCount());
+        assertEquals(16, roomLockManager.getStripeCount());
+    }
+
+    @Test
+    public void nonPositiveStripeCountShouldThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RoomLockManager(0));
+    }
+
+    @Test
+    public void consecutiveRoomsShouldBeSpreadOverStripes() {
+        long usedStripes = IntStream.range(0, 64).map(roomLockManager::stripeOf).distinct().count();
+
+        assertEquals(16, usedStripes);
+    }
+
+    @Test
+    public void callWithLocksShouldTakeEveryStripeOnceAndReleaseThem() {
+        List<Long> roomIds = List.of(1L, 2L, 3L, 1L, 17L);
+        long stripes = roomIds.stream().mapToInt(roomId -> roomLockManager.stripeOf(roomId)).distinct().count();
+
+        roomLockManager.callWithLocks(roomIds, () -> null);
+
+        assertEquals(stripes, roomLockManager.getStatistics().stream().mapToLong(StripeStatistics::acquisitions).sum());
+        assertEquals(0, roomLockManager.getStatistics().stream().mapToInt(StripeStatistics::queueLength).sum());
+        roomLockManager.runWithLock(17, () -> { });
+    }
+
+    @Test
+    public void writersOfSameRoomShouldBeSerialized() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> roomLockManager.runWithLock(1, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    sleep(5);
+                    inside.decrementAndGet();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, maxInside.get());
+        StripeStatistics statistics = roomLockManager.getStatistics().get(roomLockManager.stripeOf(1));
+        assertEquals(8, statistics.acquisitions());
+        assertTrue(statistics.contendedAcquisitions() > 0);
+        assertTrue(statistics.totalWaitNanos() >= statistics.maxWaitNanos());
+        assertTrue(statistics.maxQueueLength() > 0);
+    }
+
+    @Test
+    public void writersOfRoomsOnDifferentStripesShouldNotWaitForEachOther() throws Exception {
+        long otherRoom = IntStream.range(2, 64)
+                .filter(roomId -> roomLockManager.stripeOf(roomId) != roomLockManager.stripeOf(1))
+                .findFirst()
+                .getAsInt();
+        assertNotEquals(roomLockManager.stripeOf(1), roomLockManager.stripeOf(otherRoom));
+        CountDownLatch firstRoomLocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> roomLockManager.runWithLock(1, () -> {
+                firstRoomLocked.countDown();
+                await(release);
+            }));
+            firstRoomLocked.await(10, TimeUnit.SECONDS);
+
+            assertEquals("done", roomLockManager.callWithLock(otherRoom, () -> "done"));
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, roomLockManager.getStatistics().get(roomLockManager.stripeOf(otherRoom)).contendedAcquisitions());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.backend.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestSummaryFilterTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void onInit() {
+        appender.start();
+    }
+
+    @AfterEach
+    void onDestroy() {
+        appender.stop();
+    }
+
+    @Test
+    void serverErrorShouldAlwaysBeSummarized() throws Exception {
+        RequestSummaryFilter filter = filter(0, Duration.ofMinutes(1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(500);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/reservations"), response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        String message = appender.list.get(0).getFormattedMessage();
+        assertTrue(message.contains("method=POST"));
+        assertTrue(message.contains("route=/reservations"));
+        assertTrue(message.contains("status=500"));
+    }
+
+    @Test
+    void fastRequestShouldOnlyBeSummarizedWhenSampled() throws Exception {
+        filter(0, Duration.ofMinutes(1)).doFilter(new MockHttpServletRequest("GET", "/rooms"),
+                new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(0, appender.list.size());
+
+        filter(1, Duration.ofMinutes(1)).doFilter(new MockHttpServletRequest("GET", "/rooms"),
+                new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(1, appender.list.size());
+    }
+
+    @Test
+    void actuatorRequestsShouldNotBeSummarized() throws Exception {
+        filter(1, Duration.ZERO).doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(0, appender.list.size());
+    }
+
+    private RequestSummaryFilter filter(double sampleRate, Duration slowThreshold) {
+        RequestSummaryFilter filter = new RequestSummaryFilter(sampleRate, slowThreshold);
+        Logger logger = new ch.qos.logback.classic.LoggerContext().getLogger(RequestSummaryFilter.class);
+        logger.addAppender(appender);
+        filter.LOGGER = logger;
+        return filter;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.model.Organization;
+import com.example.backend.model.Reservation;
+import com.example.backend.model.Room;
+import com.example.backend.repository.DailyOccupancyRepository;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyOccupancyServiceTest {
+
+    @Autowired
+    DailyOccupancyService dailyOccupancyService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    OrganizationService organizationService;
+
+    @Autowired
+    DailyOccupancyRepository dailyOccupancyRepository;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Organization organization;
+    private Room room;
+    private LocalDate day;
+
+    @BeforeEach
+    void onInit() {
+        organization = new Organization();
+        organization.setName("Occupancy");
+        organizationRepository.save(organization);
+        room = transactionTemplate.execute(status -> roomRepository.save(room("Occupancy Room", "OR1")));
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        day = LocalDate.now().plusDays(30);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void minutesPerDayShouldSplitThePeriodAtMidnight() {
+        assertEquals(Map.of(day, 90, day.plusDays(1), 1440, day.plusDays(2), 30),
+                DailyOccupancyService.minutesPerDay(day.atTime(22, 30), day.plusDays(2).atTime(0, 30, 59)));
+        assertEquals(Map.of(day, 0), DailyOccupancyService.minutesPerDay(day.atTime(10, 0), day.atTime(10, 0, 30)));
+    }
+
+    @Test
+    void rollupShouldFollowReservationWrites() {
+        Reservation first = reservation("O1", day.atTime(22, 0), day.plusDays(1).atTime(2, 0));
+        Reservation second = reservation("O2", day.atTime(9, 0), day.atTime(10, 30));
+        reservationService.addReservation(first);
+        reservationService.addReservation(second);
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), day, 210, 2),
+                new DailyOccupancyView(room.getId(), day.plusDays(1), 120, 1)), occupancy());
+
+        reservationService.updateReservationById(second.getId(),
+                reservation("O2", day.plusDays(1).atTime(9, 0), day.plusDays(1).atTime(9, 45)), null);
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), day, 120, 1),
+                new DailyOccupancyView(room.getId(), day.plusDays(1), 165, 2)), occupancy());
+
+        reservationService.removeReservationById(first.getId());
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), day.plusDays(1), 45, 1)), occupancy());
+        assertEquals(occupancy(), dailyOccupancyService.getOrganizationOccupancy(organization.getId(), day, day.plusDays(7)));
+    }
+
+    @Test
+    void importShouldAddToExistingRowsAndInsertNewOnes() {
+        reservationService.addReservation(reservation("I1", day.atTime(8, 0), day.atTime(9, 0)));
+
+        reservationService.importReservations(List.of(
+                reservation("I2", day.atTime(10, 0), day.atTime(11, 0)),
+                reservation("I3", day.atTime(12, 0), day.atTime(12, 30)),
+                reservation("I4", day.plusDays(2).atTime(12, 0), day.plusDays(2).atTime(13, 0))));
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), day, 150, 3),
+                new DailyOccupancyView(room.getId(), day.plusDays(2), 60, 1)), occupancy());
+    }
+
+    @Test
+    void rebuildShouldRepairDriftedRows() {
+        reservationService.addReservation(reservation("R1", day.atTime(8, 0), day.atTime(9, 0)));
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyOccupancyRepository.addToDay(room.getId(), day, 500, 3);
+            dailyOccupancyService.add(room.getId(), day.plusDays(3).atTime(8, 0), day.plusDays(3).atTime(9, 0));
+        });
+
+        dailyOccupancyService.rebuild();
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), day, 60, 1)), occupancy());
+    }
+
+    @Test
+    void removingTheRoomShouldDeleteItsRows() {
+        reservationService.addReservation(reservation("D1", day.atTime(8, 0), day.atTime(9, 0)));
+
+        roomService.removeRoomById(room.getId());
+
+        assertEquals(0, dailyOccupancyRepository.count());
+    }
+
+    private List<DailyOccupancyView> occupancy() {
+        return dailyOccupancyService.getRoomOccupancy(room.getId(), day, day.plusDays(7));
+    }
+
+    private Room room(String name, String identifier) {
+        Map<Room.PlaceType, Integer> places = new HashMap<>();
+        places.put(Room.PlaceType.SITTING, 4);
+        return new Room.Builder()
+                .withName(name)
+                .withIdentifier(identifier)
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(places)
+                .build();
+    }
+
+    private Reservation reservation(String identifier, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier(identifier);
+        reservation.setRoomId(room.getId());
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(end);
+        return reservation;
+    }
+}
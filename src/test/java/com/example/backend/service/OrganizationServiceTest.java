@@ -1,12 +1,24 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.dto.OrganizationDetails;
+import com.example.backend.dto.OrganizationView;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomPlaceRow;
 import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.exceptions.VersionConflictException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
 import com.example.backend.model.Organization;
 import com.example.backend.model.Room;
 import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
 import com.example.backend.repository.RoomRepository;
 import jakarta.annotation.Resource;
 import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
@@ -20,13 +32,20 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +59,27 @@ class OrganizationServiceTest {
     @Mock
     RoomRepository roomRepository;
 
+    @Mock
+    ReservationRepository reservationRepository;
+
+    @Mock
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Mock
+    SecondLevelCache secondLevelCache;
+
+    @Mock
+    ChangeFeed changeFeed;
+
+    @Spy
+    RoomLockManager roomLockManager = new RoomLockManager(4);
+
+    @Spy
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Resource
     @InjectMocks
     OrganizationService organizationService;
@@ -126,7 +166,7 @@ class OrganizationServiceTest {
 
     @Test
     public void getOrganizationsShouldPass() {
-        when(organizationRepository.findAll()).thenReturn(Lists.emptyList());
+        when(organizationRepository.findAllViews()).thenReturn(Lists.emptyList());
 
         assertTrue(organizationService.getOrganizations().isEmpty());
     }
@@ -134,7 +174,7 @@ class OrganizationServiceTest {
     @Test
     public void getOrganizationByIdWithInvalidIdShouldThrowException() {
         long id = 1;
-        when(organizationRepository.existsById(id)).thenReturn(false);
+        when(organizationRepository.findViewById(id)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
             organizationService.getOrganizationById(id);
@@ -143,24 +183,43 @@ class OrganizationServiceTest {
 
     @Test
     public void getOrganizationByIdShouldPass() {
-        when(organizationRepository.existsById(organization.getId())).thenReturn(true);
-        when(organizationRepository.findById(organization.getId())).thenReturn(Optional.of(organization));
+        long id = organization.getId();
+        ReservationView reservation = new ReservationView(5, "RR22", null, null, 2L);
+        when(organizationRepository.findViewById(id)).thenReturn(Optional.of(new OrganizationView(id, organization.getName())));
+        when(roomRepository.findRoomPlaceRowsByOrganizationIdIn(List.of(id))).thenReturn(List.of(
+                new RoomPlaceRow(2, "Room", "R2", 1, true, id, Room.PlaceType.SITTING, 10),
+                new RoomPlaceRow(2, "Room", "R2", 1, true, id, Room.PlaceType.STANDING, 5)));
+        when(reservationRepository.findViewsByRoomIdIn(List.of(2L))).thenReturn(List.of(reservation));
+
+        OrganizationDetails result = organizationService.getOrganizationById(id);
 
-        Organization result = organizationService.getOrganizationById(organization.getId());
-        assertEquals(organization, result);
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(result.name()).isEqualTo(organization.getName());
+        softly.assertThat(result.rooms()).hasSize(1);
+        softly.assertThat(result.rooms().get(0).organizationId()).isEqualTo(id);
+        softly.assertThat(result.rooms().get(0).places())
+                .containsEntry(Room.PlaceType.SITTING, 10).containsEntry(Room.PlaceType.STANDING, 5);
+        softly.assertThat(result.rooms().get(0).reservations()).containsExactly(reservation);
+        softly.assertAll();
     }
 
     @Test
     public void deleteOrganizationByIdShouldPass() {
-        when(organizationRepository.existsById(organization.getId())).thenReturn(true);
+        Room room = new Room();
+        room.setId(2);
+        organization.setRooms(List.of(room));
+        when(organizationRepository.findWithRoomsById(organization.getId())).thenReturn(Optional.of(organization));
 
         organizationService.removeOrganizationById(organization.getId());
-        verify(organizationRepository).deleteById(organization.getId());
+        verify(roomRepository).findAllByIdForUpdate(List.of(2L));
+        verify(organizationRepository).delete(organization);
+        verify(reservationIntervalIndex).removeRoom(2);
+        verify(changeFeed).publish(ChangeEvent.roomDeleted(2));
     }
 
     @Test
     public void deleteOrganizationByIdWithInvalidIdShouldThrowException() {
-        when(organizationRepository.existsById(organization.getId())).thenReturn(false);
+        when(organizationRepository.findWithRoomsById(organization.getId())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
             organizationService.removeOrganizationById(organization.getId());
@@ -169,10 +228,10 @@ class OrganizationServiceTest {
 
     @Test
     public void updateOrganizationByIdShouldPass() {
-        when(organizationRepository.existsById(organization.getId())).thenReturn(true);
+        when(organizationRepository.updateName(organization.getId(), organization.getName(), 2L)).thenReturn(1);
 
-        organizationService.updateOrganizationNameById(organization.getId(), organization);
-        verify(organizationRepository).save(organization);
+        organizationService.updateOrganizationNameById(organization.getId(), organization, 2L);
+        verify(organizationRepository).updateName(organization.getId(), organization.getName(), 2L);
     }
 
     @Test
@@ -180,8 +239,27 @@ class OrganizationServiceTest {
         when(organizationRepository.existsById(organization.getId())).thenReturn(false);
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
-            organizationService.updateOrganizationNameById(organization.getId(), organization);
+            organizationService.updateOrganizationNameById(organization.getId(), organization, null);
+        });
+    }
+
+    @Test
+    public void updateOrganizationByIdWithStaleVersionShouldThrowException() {
+        when(organizationRepository.existsById(organization.getId())).thenReturn(true);
+
+        Assertions.assertThrows(VersionConflictException.class, () -> {
+            organizationService.updateOrganizationNameById(organization.getId(), organization, 1L);
+        });
+    }
+
+    @Test
+    public void updateOrganizationByIdWithInvalidNameShouldThrowException() {
+        organization.setName("A");
+
+        Assertions.assertThrows(ConstraintViolationException.class, () -> {
+            organizationService.updateOrganizationNameById(organization.getId(), organization, null);
         });
+        verify(organizationRepository, never()).updateName(anyLong(), any(), any());
     }
 
     @Test
@@ -201,6 +279,7 @@ class OrganizationServiceTest {
 
         organizationService.addRoomToOrganization(organization.getId(), room.getId());
         verify(roomRepository).save(room);
+        verify(secondLevelCache).evictOrganizationRooms(null, organization.getId());
     }
 
     @Test
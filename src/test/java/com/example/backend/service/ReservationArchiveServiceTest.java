@@ -0,0 +1,133 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DailyOccupancyView;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.model.Reservation;
+import com.example.backend.model.Room;
+import com.example.backend.repository.ArchivedReservationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationArchiveServiceTest {
+
+    @Autowired
+    ReservationArchiveService reservationArchiveService;
+
+    @Autowired
+    DailyOccupancyService dailyOccupancyService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    ReservationIntervalIndex reservationIntervalIndex;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ArchivedReservationRepository archivedReservationRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    private Room room;
+
+    @BeforeEach
+    void onInit() {
+        Map<Room.PlaceType, Integer> places = new HashMap<>();
+        places.put(Room.PlaceType.SITTING, 4);
+        room = transactionTemplate.execute(status -> roomRepository.save(new Room.Builder()
+                .withName("Archive Room")
+                .withIdentifier("AR1")
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(places)
+                .build()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        archivedReservationRepository.deleteAll();
+    }
+
+    @Test
+    void archiveShouldMoveReservationsEndedBeforeTheHorizon() {
+        LocalDateTime oldStart = reservationArchiveService.getHorizon().minusDays(30).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Reservation old = pastReservation("OLD", oldStart);
+        Reservation recent = pastReservation("RECENT", LocalDateTime.now().minusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0));
+        long published = changeFeed.getPublishedCount();
+
+        reservationArchiveService.archive();
+
+        assertEquals(published + 1, changeFeed.getPublishedCount());
+
+        assertEquals(List.of(recent.getId()), reservationRepository.findAll().stream().map(Reservation::getId).toList());
+        assertEquals(List.of(new ReservationView(old.getId(), "OLD", oldStart, oldStart.plusHours(1), room.getId())),
+                reservationArchiveService.getArchivedReservationsInPeriod(room.getId(), oldStart.minusDays(1), oldStart.plusDays(1)));
+        assertFalse(reservationIntervalIndex.hasOverlap(room.getId(), oldStart, oldStart.plusHours(1)));
+        assertTrue(reservationIntervalIndex.hasOverlap(room.getId(), recent.getStartReservationDateTime(), recent.getEndReservationDateTime()));
+    }
+
+    @Test
+    void rebuildShouldKeepTheOccupancyOfArchivedDays() {
+        LocalDateTime oldStart = reservationArchiveService.getHorizon().minusDays(30).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        pastReservation("OLD", oldStart);
+
+        reservationArchiveService.archive();
+        dailyOccupancyService.rebuild();
+
+        assertEquals(List.of(new DailyOccupancyView(room.getId(), oldStart.toLocalDate(), 60, 1)),
+                dailyOccupancyService.getRoomOccupancy(room.getId(), oldStart.toLocalDate(), oldStart.toLocalDate().plusDays(1)));
+    }
+
+    /**
+     * Past reservations can't be booked through the service, so they are saved directly and added
+     * to the index and the rollup like a booking would.
+     */
+    private Reservation pastReservation(String identifier, LocalDateTime start) {
+        return transactionTemplate.execute(status -> {
+            Reservation reservation = new Reservation();
+            reservation.setIdentifier(identifier);
+            reservation.setRoom(roomRepository.getReferenceById(room.getId()));
+            reservation.setStartReservationDateTime(start);
+            reservation.setEndReservationDateTime(start.plusHours(1));
+            reservationRepository.save(reservation);
+            reservationIntervalIndex.put(new ReservationInterval(reservation.getId(), room.getId(), start, start.plusHours(1)));
+            dailyOccupancyService.add(room.getId(), start, start.plusHours(1));
+            return reservation;
+        });
+    }
+}
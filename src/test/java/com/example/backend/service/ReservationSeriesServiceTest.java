@@ -0,0 +1,175 @@
+package com.example.backend.service;
+
+import com.example.backend.exceptions.DateInThePastException;
+import com.example.backend.exceptions.InvalidRecurrenceException;
+import com.example.backend.exceptions.InvalidSearchRequestException;
+import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.index.Occurrence;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
+import com.example.backend.model.ReservationSeries;
+import com.example.backend.model.Room;
+import com.example.backend.repository.ReservationSeriesRepository;
+import com.example.backend.repository.RoomRepository;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationSeriesServiceTest {
+    private ReservationSeries series;
+    private Room room;
+
+    @Mock
+    ReservationSeriesRepository reservationSeriesRepository;
+
+    @Mock
+    RoomRepository roomRepository;
+
+    @Spy
+    ReservationIntervalIndex reservationIntervalIndex = new ReservationIntervalIndex();
+
+    @Spy
+    RoomLockManager roomLockManager = new RoomLockManager(4);
+
+    @Spy
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Resource
+    @InjectMocks
+    ReservationSeriesService reservationSeriesService;
+
+    @BeforeEach
+    void onInit() {
+        MockitoAnnotations.initMocks(this);
+
+        room = new Room.Builder().withId(1).withAvailability(true).build();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        series = new ReservationSeries();
+        series.setId(3);
+        series.setIdentifier("STANDUP");
+        series.setRoomId(1);
+        series.setStartReservationDateTime(start);
+        series.setEndReservationDateTime(start.plusMinutes(15));
+        series.setFrequency(ReservationSeries.Frequency.WEEKLY);
+        series.setOccurrences(20);
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Optional.of(room));
+    }
+
+    @Test
+    void addReservationSeriesShouldPassAndIndexSeries() {
+        when(reservationSeriesRepository.save(series)).thenReturn(series);
+
+        reservationSeriesService.addReservationSeries(series);
+
+        verify(reservationSeriesRepository).save(series);
+        LocalDateTime tenthOccurrence = series.getStartReservationDateTime().plusWeeks(9);
+        Assertions.assertTrue(reservationIntervalIndex.hasOverlap(1, tenthOccurrence, tenthOccurrence.plusHours(1)));
+    }
+
+    @Test
+    void addReservationSeriesShouldIndexSeriesUnderSavedId() {
+        ReservationSeries saved = new ReservationSeries();
+        saved.setId(50);
+        saved.setIdentifier(series.getIdentifier());
+        saved.setRoom(room);
+        saved.setStartReservationDateTime(series.getStartReservationDateTime());
+        saved.setEndReservationDateTime(series.getEndReservationDateTime());
+        saved.setFrequency(series.getFrequency());
+        saved.setOccurrences(series.getOccurrences());
+        when(reservationSeriesRepository.save(series)).thenReturn(saved);
+
+        reservationSeriesService.addReservationSeries(series);
+        reservationIntervalIndex.removeSeries(saved.getId());
+
+        LocalDateTime tenthOccurrence = series.getStartReservationDateTime().plusWeeks(9);
+        Assertions.assertFalse(reservationIntervalIndex.hasOverlap(1, tenthOccurrence, tenthOccurrence.plusHours(1)));
+    }
+
+    @Test
+    void addReservationSeriesOverlappingReservationShouldThrowException() {
+        LocalDateTime fifthOccurrence = series.getStartReservationDateTime().plusWeeks(4);
+        reservationIntervalIndex.put(new ReservationInterval(7, 1, fifthOccurrence.plusMinutes(10), fifthOccurrence.plusHours(1)));
+
+        Assertions.assertThrows(DateInThePastException.class, () -> {
+            reservationSeriesService.addReservationSeries(series);
+        });
+    }
+
+    @ParameterizedTest
+    @CsvSource({"DAILY, 1, 1500, 5", "WEEKLY, 0, 15, 5", "WEEKLY, 53, 15, 5", "WEEKLY, 1, 15, 0", ", 1, 15, 5"})
+    void addReservationSeriesWithInvalidRecurrenceShouldThrowException(ReservationSeries.Frequency frequency,
+                                                                       int repeatInterval, int minutes, int occurrences) {
+        series.setFrequency(frequency);
+        series.setRepeatInterval(repeatInterval);
+        series.setEndReservationDateTime(series.getStartReservationDateTime().plusMinutes(minutes));
+        series.setOccurrences(occurrences);
+
+        Assertions.assertThrows(InvalidRecurrenceException.class, () -> {
+            reservationSeriesService.addReservationSeries(series);
+        });
+    }
+
+    @Test
+    void removeReservationSeriesByIdShouldLockRoomAndRemoveSeriesFromIndex() {
+        reservationIntervalIndex.putSeries(series.toPattern());
+        when(reservationSeriesRepository.findRoomIdById(3)).thenReturn(Optional.of(1L));
+        when(reservationSeriesRepository.findById(3L)).thenReturn(Optional.of(series));
+
+        reservationSeriesService.removeReservationSeriesById(3);
+
+        verify(roomRepository).findByIdForUpdate(1);
+        verify(reservationSeriesRepository).delete(series);
+        LocalDateTime tenthOccurrence = series.getStartReservationDateTime().plusWeeks(9);
+        Assertions.assertFalse(reservationIntervalIndex.hasOverlap(1, tenthOccurrence, tenthOccurrence.plusHours(1)));
+    }
+
+    @Test
+    void removeReservationSeriesByIdDeletedInTheMeantimeShouldThrowException() {
+        when(reservationSeriesRepository.findRoomIdById(3)).thenReturn(Optional.of(1L));
+        when(reservationSeriesRepository.findById(3L)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(ObjectNotFoundException.class, () -> {
+            reservationSeriesService.removeReservationSeriesById(3);
+        });
+        verify(reservationSeriesRepository, never()).delete(series);
+    }
+
+    @Test
+    void getOccurrencesShouldExpandOnlyRequestedPeriod() {
+        when(reservationSeriesRepository.findById(3L)).thenReturn(Optional.of(series));
+        LocalDateTime from = series.getStartReservationDateTime().plusWeeks(2);
+
+        List<Occurrence> occurrences = reservationSeriesService.getOccurrences(3, from, from.plusWeeks(2));
+
+        assertEquals(List.of(from, from.plusWeeks(1)), occurrences.stream().map(Occurrence::start).toList());
+    }
+
+    @Test
+    void getOccurrencesOfTooLongPeriodShouldThrowException() {
+        LocalDateTime from = series.getStartReservationDateTime();
+
+        Assertions.assertThrows(InvalidSearchRequestException.class, () -> {
+            reservationSeriesService.getOccurrencesOfRoom(1, from, from.plusYears(2));
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Reservation;
+import com.example.backend.model.Room;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceConcurrencyTest {
+    private static final int WRITERS = 16;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void onInit() {
+        room = new Room.Builder()
+                .withName("Room")
+                .withIdentifier("R1")
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(Map.of(Room.PlaceType.SITTING, 4))
+                .build();
+        roomRepository.save(room);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentOverlappingReservationsShouldBookRoomOnlyOnce() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        int booked = runConcurrently(writer -> reservation("C" + writer, start, start.plusHours(1)));
+
+        assertEquals(1, booked);
+        assertEquals(1, reservationRepository.count());
+    }
+
+    @Test
+    void concurrentDisjointReservationsShouldAllBeBooked() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        int booked = runConcurrently(writer -> reservation("D" + writer,
+                start.plusHours(2L * writer),
+                start.plusHours(2L * writer + 1)));
+
+        assertEquals(WRITERS, booked);
+        assertEquals(WRITERS, reservationRepository.count());
+    }
+
+    private int runConcurrently(WriterReservation writerReservation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                Reservation reservation = writerReservation.create(writer);
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    try {
+                        reservationService.addReservation(reservation);
+                        booked.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("The room is already booked in this date", e.getMessage());
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return booked.get();
+    }
+
+    private Reservation reservation(String identifier, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier(identifier);
+        reservation.setRoomId(room.getId());
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(end);
+        return reservation;
+    }
+
+    private interface WriterReservation {
+        Reservation create(int writer);
+    }
+}
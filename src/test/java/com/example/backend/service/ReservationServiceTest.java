@@ -1,7 +1,20 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CreatedReservation;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.ReservationImportResult;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.exceptions.InvalidImportRequestException;
+import com.example.backend.exceptions.InvalidPageRequestException;
+import com.example.backend.exceptions.InvalidSearchRequestException;
 import com.example.backend.exceptions.ObjectAlreadyExistsException;
 import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.exceptions.VersionConflictException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
 import com.example.backend.model.Reservation;
 import com.example.backend.model.Room;
 import com.example.backend.repository.ReservationRepository;
@@ -20,17 +33,28 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class ReservationServiceTest {
     private Validator validator;
     private Reservation reservation;
+    private ReservationView reservationView;
 
     @Mock
     ReservationRepository reservationRepository;
@@ -38,8 +62,23 @@ class ReservationServiceTest {
     @Mock
     RoomRepository roomRepository;
 
+    @Spy
+    ReservationIntervalIndex reservationIntervalIndex = new ReservationIntervalIndex();
+
+    @Spy
+    RoomLockManager roomLockManager = new RoomLockManager(4);
+
+    @Spy
+    Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @Mock
-    RoomService roomService;
+    ChangeFeed changeFeed;
+
+    @Mock
+    DailyOccupancyService dailyOccupancyService;
 
     @Resource
     @InjectMocks
@@ -60,6 +99,7 @@ class ReservationServiceTest {
         reservation.setIdentifier(identifier);
         reservation.setStartReservationDateTime(startReservationDateTime);
         reservation.setEndReservationDateTime(endReservationDateTime);
+        reservationView = new ReservationView(id, identifier, startReservationDateTime, endReservationDateTime, 3L);
     }
 
     //TODO move method to EntityTest
@@ -88,20 +128,86 @@ class ReservationServiceTest {
 
     @Test
     void getReservationsShouldPass() {
-        when(reservationRepository.findAll()).thenReturn(List.of(reservation));
+        when(reservationRepository.findAllViews()).thenReturn(List.of(reservationView));
 
-        List<Reservation> result = reservationService.getReservations();
+        List<ReservationView> result = reservationService.getReservations();
 
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getReservationsPageShouldReturnCursorOfLastItemWhenMoreRowsExist() {
+        ReservationView next = new ReservationView(2, "RR23", null, null, 3L);
+        when(reservationRepository.findViewsAfterId(0, PageRequest.of(0, 2)))
+                .thenReturn(List.of(reservationView, next));
+
+        KeysetPage<ReservationView> page = reservationService.getReservationsPage(null, 1, "id");
+
+        assertEquals(List.of(reservationView), page.items());
+        assertEquals("1", page.nextCursor());
+    }
+
+    @Test
+    void getReservationsPageOrderedByStartShouldContinueAfterCursor() {
+        LocalDateTime start = LocalDateTime.of(2053, 12, 18, 10, 30);
+        when(reservationRepository.findViewsAfterStart(start, 1, PageRequest.of(0, 3)))
+                .thenReturn(List.of(reservationView));
+
+        KeysetPage<ReservationView> page = reservationService.getReservationsPage("2053-12-18T10:30_1", 2, "start");
+
+        assertEquals(List.of(reservationView), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"abc, 10, id", "2053-12-18T10:30, 10, start", "1, 0, id", "1, 501, id", "1, 10, name"})
+    void getReservationsPageWithInvalidRequestShouldThrowException(String after, int size, String order) {
+        Assertions.assertThrows(InvalidPageRequestException.class, () -> {
+            reservationService.getReservationsPage(after, size, order);
+        });
+    }
+
+    @Test
+    void getReservationsInPeriodShouldScanBackByLongestReservationOfRoom() {
+        LocalDateTime from = LocalDateTime.of(2053, 12, 18, 10, 0);
+        LocalDateTime to = from.plusHours(2);
+        reservationIntervalIndex.put(new ReservationInterval(7, 3, from.minusHours(5), from.minusHours(2)));
+        when(reservationRepository.findAllByRoomInPeriod(3, from, to, from.minusHours(3)))
+                .thenReturn(List.of(reservationView));
+
+        List<ReservationView> result = reservationService.getReservationsInPeriod(3L, null, from, to);
+
+        assertEquals(List.of(reservationView), result);
+    }
+
+    @Test
+    void getReservationsInPeriodOfOrganizationShouldUseLongestReservationOfAllRooms() {
+        LocalDateTime from = LocalDateTime.of(2053, 12, 18, 10, 0);
+        LocalDateTime to = from.plusHours(2);
+        reservationIntervalIndex.put(new ReservationInterval(7, 3, from.minusHours(5), from.minusHours(1)));
+
+        reservationService.getReservationsInPeriod(null, 2L, from, to);
+
+        verify(reservationRepository).findAllByOrganizationInPeriod(2, from, to, from.minusHours(4));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1, 0, 1", ", , 0, 1", "1, , 1, 1", "1, , 2, 1"})
+    void getReservationsInPeriodWithInvalidRequestShouldThrowException(Long roomId, Long organizationId,
+                                                                       int fromHour, int toHour) {
+        LocalDateTime day = LocalDateTime.of(2053, 12, 18, 0, 0);
+
+        Assertions.assertThrows(InvalidSearchRequestException.class, () -> {
+            reservationService.getReservationsInPeriod(roomId, organizationId, day.plusHours(fromHour), day.plusHours(toHour));
+        });
+    }
+
     @Test
     public void getReservationByIdShouldPass() {
-        when(reservationRepository.existsById(reservation.getId())).thenReturn(true);
-        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(reservationRepository.findViewById(reservation.getId())).thenReturn(Optional.of(reservationView));
 
-        Reservation result = reservationService.getReservationById(reservation.getId());
-        assertEquals(reservation, result);
+        ReservationView result = reservationService.getReservationById(reservation.getId());
+        assertEquals(reservationView, result);
     }
 
     @Test
@@ -117,32 +223,95 @@ class ReservationServiceTest {
                 .withAvailability(true)
                 .withPlaces(places)
                 .build();
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
+        reservation.setRoomId(room.getId());
         when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
         when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(false);
-        when(roomRepository.findById(reservation.getRoomId())).thenReturn(Optional.of(room));
-        when(reservationRepository.findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
-                reservation.getRoomId(),
-                reservation.getEndReservationDateTime(),
-                reservation.getStartReservationDateTime())).thenReturn(new ArrayList<>());
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+        when(reservationRepository.save(reservation)).thenReturn(reservation);
 
         reservationService.addReservation(reservation);
 
         verify(reservationRepository).save(reservation);
+        verify(reservationIntervalIndex).hasOverlap(room.getId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
+        assertTrue(reservationIntervalIndex.hasOverlap(room.getId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime()));
+        verify(changeFeed).publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_CREATED, reservation.getRoomId(),
+                reservation.getId(), reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime()));
+    }
+
+    @Test
+    void addReservationShouldUseIdOfSavedReservation() {
+        Room room = new Room.Builder().withId(1).withAvailability(true).build();
+        reservation.setId(999);
+        reservation.setRoomId(room.getId());
+        Reservation saved = new Reservation();
+        saved.setId(5);
+        saved.setIdentifier(reservation.getIdentifier());
+        saved.setRoom(room);
+        saved.setStartReservationDateTime(reservation.getStartReservationDateTime());
+        saved.setEndReservationDateTime(reservation.getEndReservationDateTime());
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+        when(reservationRepository.save(reservation)).thenReturn(saved);
+
+        CreatedReservation created = reservationService.addReservation(reservation, null);
+
+        assertEquals(saved.getId(), created.id());
+        verify(changeFeed).publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_CREATED, room.getId(),
+                saved.getId(), saved.getStartReservationDateTime(), saved.getEndReservationDateTime()));
+        reservationIntervalIndex.remove(saved.getId());
+        assertFalse(reservationIntervalIndex.hasOverlap(room.getId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime()));
+    }
+
+    @Test
+    void importReservationsShouldReportEveryReservation() {
+        Room room = new Room.Builder().withId(1).withAvailability(true).build();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Reservation> reservations = List.of(
+                importedReservation("I1", 1, start.plusHours(2), start.plusHours(3)),
+                importedReservation("I2", 1, start, start.plusHours(1)),
+                importedReservation("I3", 1, start.plusMinutes(30), start.plusHours(2)),
+                importedReservation("I4", 2, start, start.plusHours(1)),
+                importedReservation("TAKEN", 1, start.plusHours(4), start.plusHours(5)),
+                importedReservation("I6", 1, start.plusHours(7), start.plusHours(6)));
+        when(roomRepository.findAllByIdForUpdate(Set.of(1L, 2L))).thenReturn(List.of(room));
+        when(reservationRepository.findExistingIdentifiers(List.of("I1", "I2", "I3", "I4", "TAKEN", "I6")))
+                .thenReturn(List.of("TAKEN"));
+
+        List<ReservationImportResult> results = reservationService.importReservations(reservations);
+
+        assertEquals(List.of(true, true, false, false, false, false),
+                results.stream().map(ReservationImportResult::created).toList());
+        assertEquals("The room is already booked in this date", results.get(2).error());
+        assertEquals("There is no room with inserted id", results.get(3).error());
+        assertEquals("The reservation with inserted identifier already exists", results.get(4).error());
+        assertEquals("The set date is invalid! Start Date is after End Date", results.get(5).error());
+        verify(reservationRepository).saveAll(List.of(reservations.get(1), reservations.get(0)));
+    }
+
+    @Test
+    void importReservationsWithEmptyBatchShouldThrowException() {
+        Assertions.assertThrows(InvalidImportRequestException.class, () -> {
+            reservationService.importReservations(List.of());
+        });
     }
 
     @Test
     public void addReservationWithRoomInvalidIdShouldThrowException() {
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(reservation.getRoomId())).thenReturn(Optional.empty());
 
-        Assertions.assertThrows(ObjectNotFoundException.class, () -> {
+        ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class, () -> {
             reservationService.addReservation(reservation);
         });
+        assertEquals("There is no room with inserted id", exception.getMessage());
+        verify(reservationRepository, never()).save(reservation);
     }
 
     @Test
     public void addReservationWithExistedIdShouldThrowException() {
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
+        Room room = new Room.Builder().withId(reservation.getRoomId()).withAvailability(true).build();
+        when(roomRepository.findByIdForUpdate(reservation.getRoomId())).thenReturn(Optional.of(room));
         when(reservationRepository.existsById(reservation.getId())).thenReturn(true);
 
         Assertions.assertThrows(ObjectAlreadyExistsException.class, () -> {
@@ -152,9 +321,10 @@ class ReservationServiceTest {
 
     @Test
     public void addReservationWithExistedIdentifierShouldThrowException() {
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
+        Room room = new Room.Builder().withId(reservation.getRoomId()).withAvailability(true).build();
+        when(roomRepository.findByIdForUpdate(reservation.getRoomId())).thenReturn(Optional.of(room));
         when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
-        when(reservationRepository.existsById(reservation.getId())).thenReturn(true);
+        when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(true);
 
         Assertions.assertThrows(ObjectAlreadyExistsException.class, () -> {
             reservationService.addReservation(reservation);
@@ -174,10 +344,10 @@ class ReservationServiceTest {
                 .withAvailability(false)
                 .withPlaces(places)
                 .build();
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
-        when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
+        reservation.setRoomId(room.getId());
         when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
-        when(roomRepository.findById(reservation.getRoomId())).thenReturn(Optional.of(room));
+        when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 
         Assertions.assertThrows(NoSuchElementException.class, () -> {
             reservationService.addReservation(reservation);
@@ -207,10 +377,10 @@ class ReservationServiceTest {
         reservation.setStartReservationDateTime(LocalDateTime.of(year, 12, 18, startTime, 30));
         reservation.setEndReservationDateTime(LocalDateTime.of(year, 12, 18, endTime, 30));
 
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
+        reservation.setRoomId(room.getId());
         when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
         when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(false);
-        when(roomRepository.findById(reservation.getRoomId())).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 
         IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> {
             reservationService.addReservation(reservation);
@@ -220,10 +390,9 @@ class ReservationServiceTest {
     }
 
     @Test
-    void updateReservationByIdShouldPass() {
+    void addReservationWhenRoomIsAlreadyBookedShouldThrowException() {
         Map<Room.PlaceType, Integer> places = new HashMap<>();
         places.put(Room.PlaceType.SITTING, 3);
-        places.put(Room.PlaceType.STANDING, 4);
         Room room = new Room.Builder()
                 .withId(1)
                 .withName("Valid Name")
@@ -232,41 +401,142 @@ class ReservationServiceTest {
                 .withAvailability(true)
                 .withPlaces(places)
                 .build();
+        reservation.setRoomId(room.getId());
+        reservationIntervalIndex.put(new ReservationInterval(
+                2,
+                room.getId(),
+                reservation.getStartReservationDateTime().minusMinutes(10),
+                reservation.getStartReservationDateTime().plusMinutes(10)));
 
-        when(roomRepository.existsById(reservation.getRoomId())).thenReturn(true);
         when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
         when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(false);
-        when(roomRepository.findById(reservation.getRoomId())).thenReturn(Optional.of(room));
-        when(reservationRepository.findAllByIdNotAndRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
-                reservation.getId(),
-                reservation.getRoomId(),
-                reservation.getEndReservationDateTime(),
-                reservation.getStartReservationDateTime())).thenReturn(new ArrayList<>());
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 
-        reservationService.updateReservationById(reservation.getId(), reservation);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            reservationService.addReservation(reservation);
+        });
+        assertEquals("The room is already booked in this date", exception.getMessage());
+        verify(reservationRepository, never()).save(reservation);
+    }
+
+    @Test
+    void updateReservationByIdShouldPass() {
+        Map<Room.PlaceType, Integer> places = new HashMap<>();
+        places.put(Room.PlaceType.SITTING, 3);
+        places.put(Room.PlaceType.STANDING, 4);
+        Room room = new Room.Builder()
+                .withId(1)
+                .withName("Valid Name")
+                .withIdentifier("Valid Identifier")
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(places)
+                .build();
+
+        reservation.setRoomId(room.getId());
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(room.getId()));
+        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(reservationRepository.existsByIdentifierAndIdNot(reservation.getIdentifier(), reservation.getId())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+
+        reservationService.updateReservationById(reservation.getId(), reservation, null);
 
         verify(reservationRepository).save(reservation);
+        verify(reservationIntervalIndex).hasOverlapExcluding(room.getId(), reservation.getId(),
+                reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime());
+        verify(dailyOccupancyService).move(reservation.getRoomId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime(), room.getId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
+    }
+
+    @Test
+    void updateReservationByIdMovingToAnotherRoomShouldPublishDeletionFromPreviousRoom() {
+        Room previousRoom = new Room.Builder().withId(2).withAvailability(true).build();
+        Room room = new Room.Builder().withId(1).withAvailability(true).build();
+        Reservation existingReservation = new Reservation();
+        existingReservation.setId(reservation.getId());
+        existingReservation.setIdentifier(reservation.getIdentifier());
+        existingReservation.setRoom(previousRoom);
+        existingReservation.setStartReservationDateTime(reservation.getStartReservationDateTime().plusHours(2));
+        existingReservation.setEndReservationDateTime(reservation.getEndReservationDateTime().plusHours(2));
+        LocalDateTime previousStart = existingReservation.getStartReservationDateTime();
+        LocalDateTime previousEnd = existingReservation.getEndReservationDateTime();
+        reservation.setRoomId(room.getId());
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(previousRoom.getId()));
+        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(existingReservation));
+        when(roomRepository.findAllByIdForUpdate(List.of(previousRoom.getId(), room.getId())))
+                .thenReturn(List.of(room, previousRoom));
+
+        reservationService.updateReservationById(reservation.getId(), reservation, null);
+
+        verify(changeFeed).publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_DELETED, previousRoom.getId(),
+                reservation.getId(), previousStart, previousEnd));
+        verify(changeFeed).publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_UPDATED, room.getId(),
+                reservation.getId(), reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime()));
+    }
+
+    @Test
+    void updateReservationByIdWithStaleVersionShouldThrowException() {
+        Room room = new Room.Builder().withId(1).withAvailability(true).build();
+        reservation.setVersion(3);
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(reservation.getRoomId()));
+        when(roomRepository.findByIdForUpdate(reservation.getRoomId())).thenReturn(Optional.of(room));
+        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+
+        Assertions.assertThrows(VersionConflictException.class, () -> {
+            reservationService.updateReservationById(reservation.getId(), reservation, 2L);
+        });
     }
 
     @Test
     void removeReservationByIdShouldPass() {
-        when(reservationRepository.existsById(reservation.getId())).thenReturn(true);
+        Room room = new Room.Builder().withId(reservation.getRoomId()).withAvailability(true).build();
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(room.getId()));
         when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(roomRepository.findByIdForUpdate(reservation.getRoomId())).thenReturn(Optional.of(room));
 
         reservationService.removeReservationById(reservation.getId());
-        verify(reservationRepository).deleteById(reservation.getId());
+        verify(reservationRepository).delete(reservation);
+        verify(dailyOccupancyService).remove(reservation.getRoomId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
+        verify(changeFeed).publish(ChangeEvent.reservation(ChangeEvent.Type.RESERVATION_DELETED, reservation.getRoomId(),
+                reservation.getId(), reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime()));
     }
 
     @Test
-    void checkIfRoomIsNotAlreadyBookedInThisDateShouldThrowException() {
-        when(reservationRepository.findAllByRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
-                reservation.getRoomId(),
-                reservation.getEndReservationDateTime(),
-                reservation.getStartReservationDateTime())).thenReturn(List.of(reservation));
+    void removeReservationByIdDeletedInTheMeantimeShouldThrowException() {
+        Room room = new Room.Builder().withId(reservation.getRoomId()).withAvailability(true).build();
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(room.getId()));
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
+            reservationService.removeReservationById(reservation.getId());
+        });
+        verify(reservationRepository, never()).delete(reservation);
+        verifyNoInteractions(dailyOccupancyService, changeFeed);
+    }
+
+    @Test
+    void checkIfRoomIsNotAlreadyBookedInThisDateShouldThrowException() {
+        Room room = new Room.Builder().withId(1).withAvailability(true).build();
+        reservation.setRoomId(room.getId());
+        reservationIntervalIndex.put(new ReservationInterval(
+                2,
+                room.getId(),
+                reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime()));
+        when(reservationRepository.existsById(reservation.getId())).thenReturn(false);
+        when(reservationRepository.existsByIdentifier(reservation.getIdentifier())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> {
             reservationService.addReservation(reservation);
         });
+        assertEquals("The room is already booked in this date", exception.getMessage());
+        verify(reservationIntervalIndex).hasOverlap(room.getId(), reservation.getStartReservationDateTime(),
+                reservation.getEndReservationDateTime());
+        verify(reservationRepository, never()).save(reservation);
     }
 
     @Test
@@ -281,15 +551,45 @@ class ReservationServiceTest {
         reservation2.setIdentifier(identifier2);
         reservation2.setStartReservationDateTime(startReservationDateTime2);
         reservation2.setEndReservationDateTime(endReservationDateTime2);
-
-        when(reservationRepository.findAllByIdNotAndRoom_IdAndStartReservationDateTimeLessThanEqualAndEndReservationDateTimeGreaterThanEqual(
+        Room room = new Room.Builder().withId(id2).withAvailability(true).build();
+        Reservation existingReservation = new Reservation();
+        existingReservation.setId(reservation.getId());
+        existingReservation.setRoomId(room.getId());
+        existingReservation.setIdentifier(reservation.getIdentifier());
+        existingReservation.setStartReservationDateTime(endReservationDateTime2.plusHours(1));
+        existingReservation.setEndReservationDateTime(endReservationDateTime2.plusHours(2));
+        reservation.setRoomId(room.getId());
+
+        reservationIntervalIndex.put(new ReservationInterval(
+                existingReservation.getId(),
+                room.getId(),
+                existingReservation.getStartReservationDateTime(),
+                existingReservation.getEndReservationDateTime()));
+        reservationIntervalIndex.put(new ReservationInterval(
                 reservation2.getId(),
                 reservation2.getRoomId(),
-                reservation2.getEndReservationDateTime(),
-                reservation2.getStartReservationDateTime())).thenReturn(List.of(reservation2));
+                reservation2.getStartReservationDateTime(),
+                reservation2.getEndReservationDateTime()));
+        when(reservationRepository.findRoomIdById(reservation.getId())).thenReturn(Optional.of(room.getId()));
+        when(reservationRepository.findById(reservation.getId())).thenReturn(Optional.of(existingReservation));
+        when(reservationRepository.existsByIdentifierAndIdNot(reservation.getIdentifier(), reservation.getId())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 
-        Assertions.assertThrows(ObjectNotFoundException.class, () -> {
-            reservationService.addReservation(reservation);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            reservationService.updateReservationById(reservation.getId(), reservation, null);
         });
+        assertEquals("The room is already booked in this date", exception.getMessage());
+        verify(reservationIntervalIndex).hasOverlapExcluding(room.getId(), reservation.getId(),
+                reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime());
+        verify(reservationRepository, never()).save(existingReservation);
+    }
+
+    private static Reservation importedReservation(String identifier, long roomId, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier(identifier);
+        reservation.setRoomId(roomId);
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(end);
+        return reservation;
     }
-}
\ No newline at end of file
+}
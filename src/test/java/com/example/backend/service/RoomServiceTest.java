@@ -1,7 +1,21 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.dto.AvailableRoom;
+import com.example.backend.dto.KeysetPage;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomCandidate;
+import com.example.backend.dto.RoomDetails;
+import com.example.backend.dto.RoomPlaceRow;
+import com.example.backend.exceptions.InvalidSearchRequestException;
 import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.feed.ChangeEvent;
+import com.example.backend.feed.ChangeFeed;
+import com.example.backend.index.FreeSlot;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.lock.RoomLockManager;
 import com.example.backend.model.Room;
+import com.example.backend.repository.ReservationRepository;
 import com.example.backend.repository.RoomRepository;
 import jakarta.annotation.Resource;
 import jakarta.validation.ConstraintViolation;
@@ -17,11 +31,24 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +58,18 @@ class RoomServiceTest {
     private Map<Room.PlaceType, Integer> places;
     @Mock
     RoomRepository roomRepository;
+    @Mock
+    ReservationRepository reservationRepository;
+    @Mock
+    ReservationIntervalIndex reservationIntervalIndex;
+    @Mock
+    SecondLevelCache secondLevelCache;
+    @Mock
+    ChangeFeed changeFeed;
+    @Spy
+    RoomLockManager roomLockManager = new RoomLockManager(4);
+    @Spy
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @Resource
     @InjectMocks
     RoomService roomService;
@@ -159,22 +198,44 @@ class RoomServiceTest {
 
     @Test
     public void getRoomsShouldPass() {
-        when(roomRepository.findAll()).thenReturn(new ArrayList<>());
+        when(roomRepository.findAllRoomPlaceRows()).thenReturn(new ArrayList<>());
         assertTrue(roomService.getRooms().isEmpty());
     }
 
+    @Test
+    public void getRoomsPageShouldPass() {
+        when(roomRepository.findIdsAfter(0, PageRequest.of(0, 11))).thenReturn(List.of(room.getId()));
+        when(roomRepository.findRoomPlaceRowsByIdIn(List.of(room.getId()))).thenReturn(List.of(
+                new RoomPlaceRow(room.getId(), room.getName(), room.getIdentifier(), 1, true, null, Room.PlaceType.SITTING, 3)));
+
+        KeysetPage<RoomDetails> page = roomService.getRoomsPage(null, 10);
+
+        assertEquals(List.of(room.getId()), page.items().stream().map(RoomDetails::id).toList());
+        assertNull(page.nextCursor());
+    }
+
     @Test
     public void getRoomByIdShouldPass() {
-        when(roomRepository.existsById(room.getId())).thenReturn(true);
-        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        long id = room.getId();
+        ReservationView reservation = new ReservationView(5, "RR22", null, null, id);
+        when(roomRepository.findRoomPlaceRowsByIdIn(List.of(id))).thenReturn(List.of(
+                new RoomPlaceRow(id, room.getName(), room.getIdentifier(), 1, true, 2L, Room.PlaceType.SITTING, 3),
+                new RoomPlaceRow(id, room.getName(), room.getIdentifier(), 1, true, 2L, Room.PlaceType.STANDING, 4)));
+        when(reservationRepository.findViewsByRoomIdIn(List.of(id))).thenReturn(List.of(reservation));
+
+        RoomDetails result = roomService.getRoomById(id);
 
-        Room result = roomService.getRoomById(room.getId());
-        assertEquals(room, result);
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(result.identifier()).isEqualTo(room.getIdentifier());
+        softly.assertThat(result.places()).isEqualTo(places);
+        softly.assertThat(result.organizationId()).isEqualTo(2L);
+        softly.assertThat(result.reservations()).containsExactly(reservation);
+        softly.assertAll();
     }
 
     @Test
     public void getRoomByIdWithInvalidIdShouldThrowException() {
-        when(roomRepository.existsById(room.getId())).thenReturn(false);
+        when(roomRepository.findRoomPlaceRowsByIdIn(List.of(room.getId()))).thenReturn(List.of());
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
             roomService.getRoomById(room.getId());
@@ -183,19 +244,81 @@ class RoomServiceTest {
 
     @Test
     public void deleteRoomByIdShouldPass() {
-        when(roomRepository.existsById(room.getId())).thenReturn(true);
-        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 
         roomService.removeRoomById(room.getId());
-        verify(roomRepository).deleteById(room.getId());
+        verify(roomRepository).delete(room);
+        verify(reservationIntervalIndex).removeRoom(room.getId());
+        verify(changeFeed).publish(ChangeEvent.roomDeleted(room.getId()));
     }
 
     @Test
     public void deleteRoomByIdWithinvalidIdShouldThrowException() {
-        when(roomRepository.existsById(room.getId())).thenReturn(false);
+        when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ObjectNotFoundException.class, () -> {
             roomService.removeRoomById(room.getId());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findAvailableRoomsShouldRankFreeRoomsBySizeBeforeBusyRoomsByNextFreeSlot() {
+        LocalDateTime from = LocalDateTime.of(2053, 12, 18, 10, 0);
+        LocalDateTime to = from.plusHours(1);
+        when(roomRepository.findAvailabilityCandidates(7, Room.PlaceType.SITTING, 4)).thenReturn(List.of(
+                new RoomCandidate(1, "Large", "L1", 0, 10),
+                new RoomCandidate(2, "Busy late", "B2", 0, 4),
+                new RoomCandidate(3, "Small", "S3", 0, 5),
+                new RoomCandidate(4, "Busy early", "B4", 0, 6)));
+        when(reservationIntervalIndex.hasOverlap(2, from, to)).thenReturn(true);
+        when(reservationIntervalIndex.hasOverlap(4, from, to)).thenReturn(true);
+        when(reservationIntervalIndex.freeSlots(anyLong(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(new FreeSlot(from, null)));
+        when(reservationIntervalIndex.freeSlots(2, from, from.plusDays(7), Duration.ofHours(1), 3))
+                .thenReturn(List.of(new FreeSlot(from.plusHours(5), null)));
+        when(reservationIntervalIndex.freeSlots(4, from, from.plusDays(7), Duration.ofHours(1), 3))
+                .thenReturn(List.of(new FreeSlot(from.plusHours(2), null)));
+
+        List<AvailableRoom> result = roomService.findAvailableRooms(7, from, to, Room.PlaceType.SITTING, 4, 3);
+
+        assertEquals(List.of(3L, 1L, 4L), result.stream().map(AvailableRoom::id).toList());
+        assertTrue(result.get(0).available() && result.get(1).available());
+        assertEquals(from.plusHours(2), result.get(2).freeSlots().get(0).start());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10, 10, 0, 20", "11, 10, 0, 20", "10, 11, -1, 20", "10, 11, 0, 0", "10, 11, 0, 101"})
+    public void findAvailableRoomsWithInvalidRequestShouldThrowException(int fromHour, int toHour, int minPlaces, int limit) {
+        LocalDateTime day = LocalDateTime.of(2053, 12, 18, 0, 0);
+
+        Assertions.assertThrows(InvalidSearchRequestException.class, () -> {
+            roomService.findAvailableRooms(7, day.withHour(fromHour), day.withHour(toHour), Room.PlaceType.SITTING, minPlaces, limit);
+        });
+    }
+
+    @Test
+    public void findRoomsFreeOnDaysShouldReturnFreeRoomsSmallestFirst() {
+        List<LocalDate> days = List.of(LocalDate.of(2053, 12, 18), LocalDate.of(2053, 12, 25));
+        LocalTime from = LocalTime.of(14, 0);
+        LocalTime to = LocalTime.of(15, 30);
+        when(roomRepository.findAvailabilityCandidates(7, Room.PlaceType.SITTING, 4)).thenReturn(List.of(
+                new RoomCandidate(1, "Large", "L1", 0, 10),
+                new RoomCandidate(2, "Busy", "B2", 0, 4),
+                new RoomCandidate(3, "Small", "S3", 0, 5)));
+        when(reservationIntervalIndex.freeRooms(Set.of(1L, 2L, 3L), days, from, to)).thenReturn(List.of(1L, 3L));
+
+        List<RoomCandidate> result = roomService.findRoomsFreeOnDays(7, days, from, to, Room.PlaceType.SITTING, 4);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(RoomCandidate::id).toList());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10, 10, 1, 0", "11, 10, 1, 0", "10, 11, 0, 0", "10, 11, 63, 0", "10, 11, 1, -1"})
+    public void findRoomsFreeOnDaysWithInvalidRequestShouldThrowException(int fromHour, int toHour, int dayCount, int minPlaces) {
+        List<LocalDate> days = LocalDate.of(2053, 12, 18).datesUntil(LocalDate.of(2053, 12, 18).plusDays(dayCount)).toList();
+
+        Assertions.assertThrows(InvalidSearchRequestException.class, () -> {
+            roomService.findRoomsFreeOnDays(7, days, LocalTime.of(fromHour, 0), LocalTime.of(toHour, 0), Room.PlaceType.SITTING, minPlaces);
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.backend.service;
+
+import com.example.backend.cache.SecondLevelCache;
+import com.example.backend.model.Organization;
+import com.example.backend.model.Room;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.backend.support.QueryCounter.count;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    OrganizationService organizationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    SecondLevelCache secondLevelCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Organization organization;
+
+    @BeforeEach
+    void onInit() {
+        organization = new Organization();
+        organization.setName("Cached");
+        organizationRepository.save(organization);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void roomShouldBeReadFromCacheAfterFirstLoad() {
+        Room room = roomRepository.save(room("Cached Room", "CR1"));
+        Runnable readRoomWithPlaces = () -> transactionTemplate.executeWithoutResult(status ->
+                roomRepository.findById(room.getId()).orElseThrow().getNumberOfPlaces(Room.PlaceType.SITTING));
+        readRoomWithPlaces.run();
+
+        long queries = count(readRoomWithPlaces);
+
+        assertEquals(0, queries);
+        assertTrue(secondLevelCache.getStatistics().regions().stream().anyMatch(region -> region.hits() > 0));
+    }
+
+    @Test
+    void organizationRoomsShouldBeEvictedWhenRoomJoinsOrganization() {
+        assertEquals(List.of(), roomNamesOfOrganization());
+        Room room = roomRepository.save(room("Joining Room", "JR1"));
+
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+
+        assertEquals(List.of("Joining Room"), roomNamesOfOrganization());
+    }
+
+    @Test
+    void organizationRoomsShouldBeEvictedWhenRoomIsDeleted() {
+        Room room = roomRepository.save(room("Leaving Room", "LR1"));
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        assertEquals(List.of("Leaving Room"), roomNamesOfOrganization());
+
+        roomService.removeRoomById(room.getId());
+
+        assertEquals(List.of(), roomNamesOfOrganization());
+    }
+
+    private List<String> roomNamesOfOrganization() {
+        return transactionTemplate.execute(status -> organizationRepository.findById(organization.getId()).orElseThrow()
+                .getRooms().stream().map(Room::getName).toList());
+    }
+
+    private Room room(String name, String identifier) {
+        Map<Room.PlaceType, Integer> places = new HashMap<>();
+        places.put(Room.PlaceType.SITTING, 4);
+        return new Room.Builder()
+                .withName(name)
+                .withIdentifier(identifier)
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(places)
+                .build();
+    }
+}
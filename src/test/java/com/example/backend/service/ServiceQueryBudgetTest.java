@@ -0,0 +1,261 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AvailableRoom;
+import com.example.backend.dto.OrganizationDetails;
+import com.example.backend.dto.ReservationView;
+import com.example.backend.dto.RoomDetails;
+import com.example.backend.dto.UtilizationReport;
+import com.example.backend.model.Organization;
+import com.example.backend.model.Reservation;
+import com.example.backend.model.Room;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.ReservationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.backend.support.QueryCounter.assertQueryCountAtMost;
+import static com.example.backend.support.QueryCounter.assertSelectCountAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the number of SQL statements each service method needs. Every call runs in its own
+ * transaction, like a request with open-session-in-view. Budgets for inserts leave room for one
+ * sequence call. Entity graph loads must not grow with the number of rooms.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceQueryBudgetTest {
+
+    @Autowired
+    OrganizationService organizationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    UtilizationService utilizationService;
+
+    @Autowired
+    OrganizationRepository organizationRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Organization organization;
+    private Room room;
+    private Reservation reservation;
+
+    @BeforeEach
+    void onInit() {
+        organization = new Organization();
+        organization.setName("Budget");
+        organizationRepository.save(organization);
+
+        room = transactionTemplate.execute(status -> roomRepository.save(room("Budget Room", "BR1")));
+
+        reservation = reservation("B1", LocalDateTime.now().plusDays(1));
+        reservationService.addReservation(reservation);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.findAll().forEach(reservation -> reservationService.removeReservationById(reservation.getId()));
+        roomRepository.findAll().forEach(room -> roomService.removeRoomById(room.getId()));
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void getOrganizationByIdShouldLoadRoomsAndReservationsWithThreeQueries() {
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        List<OrganizationDetails> result = new ArrayList<>();
+
+        assertQueryCountAtMost(3, () -> result.add(organizationService.getOrganizationById(organization.getId())));
+        RoomDetails roomDetails = result.get(0).rooms().get(0);
+        assertEquals(organization.getId(), roomDetails.organizationId());
+        assertEquals(Map.of(Room.PlaceType.SITTING, 4, Room.PlaceType.STANDING, 2), roomDetails.places());
+        assertEquals(List.of(reservation.getId()), roomDetails.reservations().stream().map(ReservationView::id).toList());
+    }
+
+    @Test
+    void getRoomByIdShouldLoadPlacesAndReservationsWithTwoQueries() {
+        List<RoomDetails> result = new ArrayList<>();
+
+        assertQueryCountAtMost(2, () -> result.add(roomService.getRoomById(room.getId())));
+        assertEquals(room.getId(), result.get(0).reservations().get(0).roomId());
+    }
+
+    @Test
+    void getOrganizationUtilizationShouldNotReadReservations() {
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        LocalDate from = reservation.getStartReservationDateTime().toLocalDate();
+        List<UtilizationReport> result = new ArrayList<>();
+
+        assertQueryCountAtMost(1, () -> result.add(utilizationService.getOrganizationUtilization(organization.getId(),
+                from.minusDays(15), from.plusDays(16))));
+        assertEquals(Duration.between(reservation.getStartReservationDateTime(), reservation.getEndReservationDateTime())
+                .getSeconds() / 3600.0, result.get(0).bookedHours());
+    }
+
+    @Test
+    void getReservationByIdShouldUseOneQuery() {
+        List<ReservationView> result = new ArrayList<>();
+
+        assertQueryCountAtMost(1, () -> result.add(reservationService.getReservationById(reservation.getId())));
+        assertEquals(room.getId(), result.get(0).roomId());
+    }
+
+    @Test
+    void addReservationShouldStayWithinBudget() {
+        Reservation newReservation = reservation("B2", LocalDateTime.now().plusDays(2));
+
+        assertQueryCountAtMost(5, () -> inRequest(() -> reservationService.addReservation(newReservation)));
+    }
+
+    @Test
+    void updateReservationByIdShouldStayWithinBudget() {
+        Reservation update = reservation("B3", LocalDateTime.now().plusDays(3));
+
+        assertQueryCountAtMost(8, () -> inRequest(() -> reservationService.updateReservationById(reservation.getId(), update, null)));
+    }
+
+    @Test
+    void updateOrganizationNameByIdShouldUseOneConditionalUpdate() {
+        Organization update = new Organization();
+        update.setName("Renamed");
+
+        assertQueryCountAtMost(1, () -> organizationService.updateOrganizationNameById(organization.getId(), update, 0L));
+        assertEquals("Renamed", organizationRepository.findById(organization.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void removeReservationByIdShouldStayWithinBudget() {
+        // Only the room id is read before the room lock is taken, the reservation itself is read after it
+        assertQueryCountAtMost(5, () -> inRequest(() -> reservationService.removeReservationById(reservation.getId())));
+    }
+
+    @Test
+    void addRoomShouldStayWithinBudget() {
+        Room newRoom = room("Second Room", "BR2");
+        newRoom.setOrganizationId(organization.getId());
+
+        assertQueryCountAtMost(7, () -> inRequest(() -> roomService.addRoom(newRoom)));
+    }
+
+    @Test
+    void addRoomToOrganizationShouldStayWithinBudget() {
+        assertQueryCountAtMost(3, () -> inRequest(() -> organizationService.addRoomToOrganization(organization.getId(), room.getId())));
+    }
+
+    @Test
+    void findAllRoomsShouldFetchPlacesInOneQuery() {
+        addRoomsToOrganization(4);
+
+        assertQueryCountAtMost(1, () -> inRequest(() -> roomRepository.findAll()
+                .forEach(room -> room.getNumberOfPlaces(Room.PlaceType.SITTING))));
+    }
+
+    @Test
+    void findAllOrganizationsShouldFetchRoomsAndPlacesInOneQuery() {
+        addRoomsToOrganization(4);
+
+        assertQueryCountAtMost(1, () -> inRequest(() -> organizationRepository.findAll()
+                .forEach(organization -> organization.getRooms()
+                        .forEach(room -> room.getNumberOfPlaces(Room.PlaceType.SITTING)))));
+    }
+
+    @Test
+    void removeOrganizationByIdShouldNotLoadRoomsOneByOne() {
+        addRoomsToOrganization(6);
+
+        // The organization is read again and its rooms are locked once the room locks are held
+        assertSelectCountAtMost(5, () -> inRequest(() -> organizationService.removeOrganizationById(organization.getId())));
+        assertEquals(0, reservationRepository.count());
+    }
+
+    @Test
+    void findAvailableRoomsShouldUseOneQuery() {
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        LocalDateTime from = reservation.getStartReservationDateTime();
+        List<AvailableRoom> result = new ArrayList<>();
+
+        assertQueryCountAtMost(1, () -> inRequest(() -> result.addAll(roomService.findAvailableRooms(
+                organization.getId(), from, from.plusHours(1), Room.PlaceType.SITTING, 4, 20))));
+        assertEquals(1, result.size());
+        assertFalse(result.get(0).available());
+        assertTrue(roomService.findAvailableRooms(organization.getId(), from, from.plusHours(1), Room.PlaceType.SITTING, 5, 20).isEmpty());
+    }
+
+    @Test
+    void importReservationsShouldUseBatchedInserts() {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            reservations.add(reservation("IMP" + i, LocalDateTime.now().plusDays(10 + i)));
+        }
+
+        assertQueryCountAtMost(6, () -> reservationService.importReservations(reservations));
+        assertEquals(41, reservationRepository.count());
+    }
+
+    private void addRoomsToOrganization(int count) {
+        organizationService.addRoomToOrganization(organization.getId(), room.getId());
+        for (int i = 0; i < count - 1; i++) {
+            Room extraRoom = room("Extra Room " + i, "ER" + i);
+            extraRoom.setOrganizationId(organization.getId());
+            inRequest(() -> roomService.addRoom(extraRoom));
+            Reservation extraReservation = reservation("E" + i, LocalDateTime.now().plusDays(1));
+            extraReservation.setRoomId(extraRoom.getId());
+            reservationService.addReservation(extraReservation);
+        }
+    }
+
+    private void inRequest(Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> action.run());
+    }
+
+    private Room room(String name, String identifier) {
+        Map<Room.PlaceType, Integer> places = new HashMap<>();
+        places.put(Room.PlaceType.SITTING, 4);
+        places.put(Room.PlaceType.STANDING, 2);
+        return new Room.Builder()
+                .withName(name)
+                .withIdentifier(identifier)
+                .withLevel(1)
+                .withAvailability(true)
+                .withPlaces(places)
+                .build();
+    }
+
+    private Reservation reservation(String identifier, LocalDateTime start) {
+        Reservation reservation = new Reservation();
+        reservation.setIdentifier(identifier);
+        reservation.setRoomId(room.getId());
+        reservation.setStartReservationDateTime(start);
+        reservation.setEndReservationDateTime(start.plusHours(1));
+        return reservation;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DailyUtilization;
+import com.example.backend.dto.HourlyUtilization;
+import com.example.backend.dto.RoomLabel;
+import com.example.backend.dto.RoomUtilization;
+import com.example.backend.dto.UtilizationReport;
+import com.example.backend.exceptions.InvalidSearchRequestException;
+import com.example.backend.exceptions.ObjectNotFoundException;
+import com.example.backend.index.ReservationInterval;
+import com.example.backend.index.ReservationIntervalIndex;
+import com.example.backend.repository.OrganizationRepository;
+import com.example.backend.repository.RoomRepository;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+
+class UtilizationServiceTest {
+    private static final LocalDate MONDAY = LocalDate.of(2053, 12, 15);
+
+    @Mock
+    RoomRepository roomRepository;
+
+    @Mock
+    OrganizationRepository organizationRepository;
+
+    @Spy
+    ReservationIntervalIndex reservationIntervalIndex = new ReservationIntervalIndex();
+
+    @InjectMocks
+    UtilizationService utilizationService;
+
+    @BeforeEach
+    void onInit() {
+        MockitoAnnotations.initMocks(this);
+        reservationIntervalIndex.load(List.of(
+                new ReservationInterval(1, 1, MONDAY.atTime(9, 0), MONDAY.atTime(11, 0)),
+                new ReservationInterval(2, 1, MONDAY.plusDays(1).atTime(9, 30), MONDAY.plusDays(1).atTime(10, 0)),
+                new ReservationInterval(3, 2, MONDAY.atTime(10, 0), MONDAY.atTime(12, 0)),
+                new ReservationInterval(4, 2, MONDAY.plusDays(7).atTime(10, 0), MONDAY.plusDays(7).atTime(12, 0))));
+    }
+
+    @Test
+    void organizationUtilizationShouldSumRoomsPerDayAndHour() {
+        when(roomRepository.findLabelsByOrganizationId(5)).thenReturn(List.of(
+                new RoomLabel(1, "Small", "S1"), new RoomLabel(2, "Large", "L1"), new RoomLabel(3, "Empty", "E1")));
+
+        UtilizationReport report = utilizationService.getOrganizationUtilization(5, MONDAY, MONDAY.plusDays(2));
+
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(report.bookedHours()).isEqualTo(4.5);
+        softly.assertThat(report.utilization()).isEqualTo(4.5 / (3 * 2 * 24));
+        softly.assertThat(report.days()).containsExactly(
+                new DailyUtilization(MONDAY, 4, 4.0 / (3 * 24)),
+                new DailyUtilization(MONDAY.plusDays(1), 0.5, 0.5 / (3 * 24)));
+        softly.assertThat(report.peakHours()).containsExactly(
+                new HourlyUtilization(10, 2), new HourlyUtilization(9, 1.5), new HourlyUtilization(11, 1));
+        softly.assertThat(report.rooms()).extracting(RoomUtilization::id).containsExactly(1L, 2L, 3L);
+        softly.assertThat(report.rooms().get(0).bookedHours()).isEqualTo(2.5);
+        softly.assertThat(report.idleRoomIds()).containsExactly(3L);
+        softly.assertAll();
+    }
+
+    @Test
+    void roomUtilizationShouldOnlyCountThePeriod() {
+        when(roomRepository.findLabelById(2)).thenReturn(Optional.of(new RoomLabel(2, "Large", "L1")));
+
+        UtilizationReport report = utilizationService.getRoomUtilization(2, MONDAY.plusDays(1), MONDAY.plusDays(8));
+
+        Assertions.assertEquals(2, report.bookedHours());
+        Assertions.assertEquals(7, report.days().size());
+        Assertions.assertEquals(List.of(), report.idleRoomIds());
+    }
+
+    @Test
+    void utilizationOfUnknownOrganizationShouldThrowException() {
+        when(roomRepository.findLabelsByOrganizationId(5)).thenReturn(List.of());
+        when(organizationRepository.existsById(5L)).thenReturn(false);
+
+        Assertions.assertThrows(ObjectNotFoundException.class,
+                () -> utilizationService.getOrganizationUtilization(5, MONDAY, MONDAY.plusDays(1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "-1", "367"})
+    void utilizationWithInvalidPeriodShouldThrowException(int days) {
+        Assertions.assertThrows(InvalidSearchRequestException.class,
+                () -> utilizationService.getRoomUtilization(1, MONDAY, MONDAY.plusDays(days)));
+    }
+}
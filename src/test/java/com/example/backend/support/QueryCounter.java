@@ -0,0 +1,47 @@
+package com.example.backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements Hibernate prepares. Registered for the test profile through
+ * {@code hibernate.session_factory.statement_inspector}.
+ */
+public class QueryCounter implements StatementInspector {
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final AtomicInteger SELECTS = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.incrementAndGet();
+        if (sql.regionMatches(true, 0, "select", 0, 6)) {
+            SELECTS.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static int count(Runnable action) {
+        int before = COUNT.get();
+        action.run();
+        return COUNT.get() - before;
+    }
+
+    public static void assertQueryCountAtMost(int budget, Runnable action) {
+        int count = count(action);
+        assertTrue(count <= budget, "Expected at most " + budget + " queries but " + count + " were executed");
+    }
+
+    /**
+     * Like {@link #assertQueryCountAtMost} but only counts selects, for actions whose inserts or
+     * deletes grow with the data while their reads must not.
+     */
+    public static void assertSelectCountAtMost(int budget, Runnable action) {
+        int before = SELECTS.get();
+        action.run();
+        int count = SELECTS.get() - before;
+        assertTrue(count <= budget, "Expected at most " + budget + " selects but " + count + " were executed");
+    }
+}